@@ -0,0 +1,110 @@
+package com.idea;
+
+import com.idea.bench.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName: GridConfigStageBenchmark
+ * @Description: DatasourceAnalyzer转换阶段的基准测试：transformData、transformData2、extractGridInfo <br>
+ *  transformData会原地修改行数据，每次调用前复制一份原始行（不计入耗时）。
+ *  gridMemoEntries为grid、options提取结果缓存的条数，0为不缓存；缓存时从第二次调用起相同的grid直接命中，
+ *  行数超过缓存条数时顺序访问全部未命中，可看出缓存本身的开销。
+ *  运行：mvn -Pjmh compile exec:exec -Djmh.args="GridConfigStageBenchmark -prof gc"
+ * @Author: yuanbao
+ * @Date: 2025/3/28
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GridConfigStageBenchmark
+{
+    // eh_dynamic_grid_config的行数
+    @Param({ "100", "1000", "10000" })
+    public int rows;
+
+    // grid、options提取结果缓存的条数，0为不缓存
+    @Param({ "0", "1024" })
+    public int gridMemoEntries;
+
+    private final DatasourceAnalyzer analyzer = new DatasourceAnalyzer();
+
+    private List<Map<String, Object>> commonRows;
+
+    private List<Map<String, Object>> sqlRows;
+
+    private List<Map<String, Object>> commonCopy;
+
+    private List<Map<String, Object>> sqlCopy;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        commonRows = SyntheticData.gridConfigRows(rows, false, 42L);
+        sqlRows = SyntheticData.gridConfigRows(rows, true, 43L);
+        Field field = ReflectionUtils.findField(DatasourceAnalyzer.class, "gridMemoMaxEntries");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, analyzer, gridMemoEntries);
+        analyzer.initGridMemo();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyRows()
+    {
+        commonCopy = copy(commonRows);
+        sqlCopy = copy(sqlRows);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> transformData()
+    {
+        return analyzer.transformData(commonCopy);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> transformData2()
+    {
+        return analyzer.transformData2(sqlCopy);
+    }
+
+    @Benchmark
+    public void extractGridInfo(Blackhole blackhole)
+    {
+        for (Map<String, Object> row : commonRows)
+        {
+            blackhole.consume(analyzer.extractGridInfo((String) row.get("grid")));
+        }
+    }
+
+    private static List<Map<String, Object>> copy(List<Map<String, Object>> source)
+    {
+        List<Map<String, Object>> list = new ArrayList<>(source.size());
+        for (Map<String, Object> row : source)
+        {
+            list.add(new LinkedHashMap<>(row));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,106 @@
+package com.idea;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea.bench.SyntheticData;
+import com.idea.postman.PostmanStreamParser;
+import com.idea.postman.RequestRecord;
+import com.idea.postman.UrlRuleMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @ClassName: PostmanStageBenchmark
+ * @Description: PostJsonAnalyzer各阶段的基准测试：解析（树/流式）、请求提取、Form-data格式化 <br>
+ *  运行：mvn -Pjmh compile exec:exec -Djmh.args="PostmanStageBenchmark -prof gc"
+ * @Author: yuanbao
+ * @Date: 2025/3/28
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostmanStageBenchmark
+{
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // 集合中的请求数
+    @Param({ "100", "1000", "10000" })
+    public int requests;
+
+    // 每个请求的form-data字段数
+    @Param({ "10" })
+    public int formFields;
+
+    private Path collection;
+
+    private JsonNode root;
+
+    private List<RequestRecord> records;
+
+    private final UrlRuleMatcher matcher = new UrlRuleMatcher(Collections.singletonList("!select.*\\.m$"), Collections.emptyList());
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        collection = Files.createTempFile("bench-collection", ".json");
+        SyntheticData.writePostmanCollection(collection, requests, 2, formFields, 42L);
+        root = mapper.readTree(collection.toFile());
+        records = PostJsonAnalyzer.streamRequests(root, false).collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(collection);
+    }
+
+    @Benchmark
+    public JsonNode parseTree() throws IOException
+    {
+        return mapper.readTree(collection.toFile());
+    }
+
+    @Benchmark
+    public void parseStream(Blackhole blackhole) throws IOException
+    {
+        PostmanStreamParser.parse(collection, matcher, blackhole::consume);
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole)
+    {
+        PostJsonAnalyzer.streamRequests(root, false).forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public void formatFormData(Blackhole blackhole)
+    {
+        for (RequestRecord data : records)
+        {
+            blackhole.consume(PostJsonAnalyzer.formatFormData(data));
+        }
+    }
+}
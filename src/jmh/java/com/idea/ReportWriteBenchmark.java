@@ -0,0 +1,98 @@
+package com.idea;
+
+import com.idea.bench.SyntheticData;
+import com.idea.excel.ExcelWorkbookFactory;
+import com.idea.report.ReportColumn;
+import com.idea.report.ReportSink;
+import com.idea.report.ReportSinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName: ReportWriteBenchmark
+ * @Description: 报表写入阶段的基准测试，对比xlsx、csv、jsonl三种输出 <br>
+ *  运行：mvn -Pjmh compile exec:exec -Djmh.args="ReportWriteBenchmark -prof gc"
+ * @Author: yuanbao
+ * @Date: 2025/3/28
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReportWriteBenchmark
+{
+    private static final ReportColumn[] COLUMNS = {
+            new ReportColumn("序号", 5, false),
+            new ReportColumn("功能名", 30, false),
+            new ReportColumn("请求URL", 40, true),
+            new ReportColumn("请求Form-Data", 80, true),
+            new ReportColumn("Grid配置", 60, true)
+    };
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    @Param({ "xlsx", "csv", "jsonl" })
+    public String format;
+
+    private List<Map<String, Object>> data;
+
+    private Path outputDir;
+
+    private final ExcelWorkbookFactory workbookFactory = new ExcelWorkbookFactory();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        data = SyntheticData.gridConfigRows(rows, false, 42L);
+        outputDir = Files.createTempDirectory("bench-report");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(ReportSinks.outputFile(format, outputDir.resolve("output")));
+        Files.deleteIfExists(outputDir);
+    }
+
+    @Benchmark
+    public void write() throws IOException
+    {
+        try (ReportSink sink = ReportSinks.create(format, outputDir.resolve("output"), workbookFactory, rows))
+        {
+            sink.startSheet("benchmark", COLUMNS);
+            for (int i = 0; i < data.size(); i++)
+            {
+                Map<String, Object> row = data.get(i);
+                sink.startRow();
+                sink.cell(i + 1);
+                sink.cell((String) row.get("table_title"));
+                sink.cell((String) row.get("data_source"));
+                sink.cell((String) row.get("data_source"));
+                sink.cell((String) row.get("grid"));
+                sink.endRow();
+            }
+            sink.finish();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.idea.bench;
+
+import com.idea.PostJsonAnalyzer;
+import com.idea.batch.GridExportBatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @ClassName: EndToEndBenchmark
+ * @Description: 两个分析器的端到端基准测试：按给定规模生成数据，在独立的JVM中运行完整流程，记录耗时、峰值内存和输出大小 <br>
+ *  1. postman：生成Postman集合文件（请求总数为规模），运行PostJsonAnalyzer
+ *  2. grid：在MySQL模式的H2文件库中写入eh_dynamic_grid_config（行数为规模，common和sql各一半），
+ *     通过GridExportBatch运行DatasourceAnalyzer的导出
+ *  每次运行使用新的JVM（MeasuredMain），耗时包含JVM启动，峰值内存为子进程的VmHWM。
+ *  生成的数据保存在工作目录下，同一规模和参数再次运行时直接复用。结果输出为表格，并追加到工作目录下的results.csv。
+ *  运行：mvn -Pjmh compile exec:exec@e2e -De2e.args="--scales=1000,100000 --format=csv"
+ *  参数（均可选）：
+ *      --scales=1000,100000,1000000  规模
+ *      --analyzers=postman,grid      要运行的分析器
+ *      --format=xlsx                 输出格式
+ *      --work-dir=target/e2e         工作目录
+ *      --files=4                     Postman集合文件数
+ *      --depth=3                     Postman目录嵌套深度
+ *      --form-fields=8               每个请求的form-data字段数
+ *      --clone-ratio=0.3             复制已有grid配置的行所占比例
+ *      --seed=42                     随机种子
+ *      --jvm-args="-Xmx2g"           子进程的JVM参数，空格分隔
+ * @Author: yuanbao
+ * @Date: 2025/4/21
+ **/
+public class EndToEndBenchmark
+{
+    private static final String RESULT_HEADER = "time,analyzer,scale,format,wall_ms,peak_rss_mb,output_mb,exit_code";
+
+    /**
+     * 一次运行的结果
+     */
+    private static final class Result
+    {
+        private final String analyzer;
+
+        private final int scale;
+
+        private final long wallMillis;
+
+        private final long peakRssKb;
+
+        private final long outputBytes;
+
+        private final int exitCode;
+
+        private Result(String analyzer, int scale, long wallMillis, long peakRssKb, long outputBytes, int exitCode)
+        {
+            this.analyzer = analyzer;
+            this.scale = scale;
+            this.wallMillis = wallMillis;
+            this.peakRssKb = peakRssKb;
+            this.outputBytes = outputBytes;
+            this.exitCode = exitCode;
+        }
+    }
+
+    private final Map<String, String> options;
+
+    private final Path workDir;
+
+    private final String format;
+
+    private EndToEndBenchmark(Map<String, String> options)
+    {
+        this.options = options;
+        this.workDir = Paths.get(options.getOrDefault("work-dir", "target/e2e")).toAbsolutePath();
+        this.format = options.getOrDefault("format", "xlsx");
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args)
+        {
+            if (!arg.startsWith("--") || !arg.contains("="))
+            {
+                throw new IllegalArgumentException("参数格式应为--key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        new EndToEndBenchmark(options).run();
+    }
+
+    private void run() throws Exception
+    {
+        List<Result> results = new ArrayList<>();
+        for (String scale : options.getOrDefault("scales", "1000,100000,1000000").split(","))
+        {
+            for (String analyzer : options.getOrDefault("analyzers", "postman,grid").split(","))
+            {
+                int n = Integer.parseInt(scale.trim());
+                Result result = "postman".equals(analyzer.trim()) ? runPostman(n) : runGrid(n);
+                results.add(result);
+                appendCsv(result);
+            }
+        }
+        System.out.printf("%n%-8s %10s %10s %12s %12s %6s%n", "分析器", "规模", "耗时(ms)", "峰值内存(MB)", "输出(MB)", "退出码");
+        for (Result r : results)
+        {
+            System.out.printf("%-8s %10d %10d %12s %12.2f %6d%n", r.analyzer, r.scale, r.wallMillis,
+                    r.peakRssKb < 0 ? "-" : String.format("%.1f", r.peakRssKb / 1024.0), r.outputBytes / (1024.0 * 1024.0), r.exitCode);
+        }
+        System.out.println("结果已追加到：" + workDir.resolve("results.csv"));
+    }
+
+    private Result runPostman(int requests) throws Exception
+    {
+        int files = intOption("files", 4);
+        int depth = intOption("depth", 3);
+        int formFields = intOption("form-fields", 8);
+        Path inputDir = workDir.resolve("postman-" + requests + "-" + files + "-" + depth + "-" + formFields + "-" + seed());
+        prepare(inputDir, () -> SyntheticData.writePostmanCollections(inputDir, requests, files, depth, formFields, seed()));
+        deleteOutputs(inputDir, "output.");
+        return measure("postman", requests, inputDir, "output.",
+                PostJsonAnalyzer.class.getName(), inputDir.toString(), "--format=" + format);
+    }
+
+    private Result runGrid(int rows) throws Exception
+    {
+        double cloneRatio = Double.parseDouble(options.getOrDefault("clone-ratio", "0.3"));
+        Path dataDir = workDir.resolve("grid-" + rows + "-" + cloneRatio + "-" + seed());
+        String url = "jdbc:h2:file:" + dataDir.resolve("db") + ";MODE=MySQL";
+        prepare(dataDir, () -> {
+            try (Connection con = DriverManager.getConnection(url, "sa", ""))
+            {
+                SyntheticData.createGridConfigTable(con);
+                SyntheticData.insertGridConfigRows(con, rows - rows / 2, "common", cloneRatio, seed());
+                SyntheticData.insertGridConfigRows(con, rows / 2, "sql", cloneRatio, seed() + 1);
+            }
+        });
+        Path outputDir = dataDir.resolve("output");
+        deleteOutputs(outputDir, "V55_EH_GRID_OUTPUT.");
+        return measure("grid", rows, outputDir, "V55_EH_GRID_OUTPUT.",
+                GridExportBatch.class.getName(),
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // H2不支持MySQL驱动的Integer.MIN_VALUE流式读取
+                "--export.jdbc.fetch-size=1000",
+                "--export.format=" + format,
+                "--output-dir=" + outputDir);
+    }
+
+    /**
+     * 生成数据的步骤
+     */
+    private interface Generator
+    {
+        void generate() throws Exception;
+    }
+
+    /**
+     * 数据目录中没有完成标记时重新生成数据，生成完成后写入标记
+     */
+    private void prepare(Path dataDir, Generator generator) throws Exception
+    {
+        Path marker = dataDir.resolve(".complete");
+        if (Files.exists(marker))
+        {
+            return;
+        }
+        deleteRecursively(dataDir);
+        Files.createDirectories(dataDir);
+        System.out.println("生成数据：" + dataDir);
+        long start = System.nanoTime();
+        generator.generate();
+        Files.createFile(marker);
+        System.out.println("数据生成完成，耗时" + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    /**
+     * 在新的JVM中运行主类，返回耗时、峰值内存和输出文件大小；子进程的输出写入工作目录下的logs
+     */
+    private Result measure(String analyzer, int scale, Path outputDir, String outputPrefix, String... command) throws Exception
+    {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String jvmArgs = options.getOrDefault("jvm-args", "").trim();
+        if (!jvmArgs.isEmpty())
+        {
+            cmd.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(MeasuredMain.class.getName());
+        cmd.addAll(Arrays.asList(command));
+
+        Path log = Files.createDirectories(workDir.resolve("logs")).resolve(analyzer + "-" + scale + "." + format + ".log");
+        System.out.println("运行：" + analyzer + "，规模" + scale + "，日志：" + log);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        int exitCode = process.waitFor();
+        long wallMillis = (System.nanoTime() - start) / 1000000;
+
+        long peakRssKb = -1;
+        for (String line : Files.readAllLines(log, StandardCharsets.UTF_8))
+        {
+            if (line.startsWith(MeasuredMain.PEAK_RSS_PREFIX))
+            {
+                peakRssKb = Long.parseLong(line.substring(MeasuredMain.PEAK_RSS_PREFIX.length()).trim());
+            }
+        }
+        long outputBytes = 0;
+        if (Files.isDirectory(outputDir))
+        {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(outputDir, outputPrefix + "*"))
+            {
+                for (Path file : stream)
+                {
+                    outputBytes += Files.size(file);
+                }
+            }
+        }
+        if (exitCode != 0)
+        {
+            System.err.println(analyzer + "运行失败，退出码" + exitCode + "，详见" + log);
+        }
+        return new Result(analyzer, scale, wallMillis, peakRssKb, outputBytes, exitCode);
+    }
+
+    private void appendCsv(Result r) throws IOException
+    {
+        Path csv = Files.createDirectories(workDir).resolve("results.csv");
+        boolean exists = Files.exists(csv);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+        {
+            if (!exists)
+            {
+                writer.write(RESULT_HEADER);
+                writer.newLine();
+            }
+            writer.write(String.join(",", LocalDateTime.now().toString(), r.analyzer, String.valueOf(r.scale), format,
+                    String.valueOf(r.wallMillis), r.peakRssKb < 0 ? "" : String.format("%.1f", r.peakRssKb / 1024.0),
+                    String.format("%.2f", r.outputBytes / (1024.0 * 1024.0)), String.valueOf(r.exitCode)));
+            writer.newLine();
+        }
+    }
+
+    private static void deleteOutputs(Path dir, String prefix) throws IOException
+    {
+        if (!Files.isDirectory(dir))
+        {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*"))
+        {
+            for (Path file : stream)
+            {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException
+    {
+        if (!Files.exists(path))
+        {
+            return;
+        }
+        if (Files.isDirectory(path))
+        {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path))
+            {
+                for (Path child : stream)
+                {
+                    deleteRecursively(child);
+                }
+            }
+        }
+        Files.delete(path);
+    }
+
+    private int intOption(String key, int defaultValue)
+    {
+        return Integer.parseInt(options.getOrDefault(key, String.valueOf(defaultValue)));
+    }
+
+    private long seed()
+    {
+        return Long.parseLong(options.getOrDefault("seed", "42"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.idea.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * @ClassName: MeasuredMain
+ * @Description: 在子进程中运行指定的主类，退出时输出进程的峰值内存 <br>
+ *  由EndToEndBenchmark启动：java -cp ... com.idea.bench.MeasuredMain 主类 参数...
+ *  峰值内存取自/proc/self/status的VmHWM（峰值常驻内存），在关闭钩子中输出，
+ *  因此主类正常返回或调用System.exit（如GridExportBatch）时都会输出；非Linux系统输出-1
+ * @Author: yuanbao
+ * @Date: 2025/4/21
+ **/
+public class MeasuredMain
+{
+    // 峰值内存输出行的前缀，EndToEndBenchmark据此从子进程输出中解析
+    public static final String PEAK_RSS_PREFIX = "E2E_PEAK_RSS_KB=";
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 0)
+        {
+            throw new IllegalArgumentException("用法：MeasuredMain 主类 [参数...]");
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(PEAK_RSS_PREFIX + peakRssKb())));
+        Method main = Class.forName(args[0]).getMethod("main", String[].class);
+        try
+        {
+            main.invoke(null, (Object) Arrays.copyOfRange(args, 1, args.length));
+        } catch (InvocationTargetException e)
+        {
+            e.getCause().printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 当前进程的峰值常驻内存（KB），无法读取时返回-1
+     */
+    private static long peakRssKb()
+    {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get("/proc/self/status"), StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.startsWith("VmHWM:"))
+                {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e)
+        {
+            // 非Linux系统
+        }
+        return -1;
+    }
+}
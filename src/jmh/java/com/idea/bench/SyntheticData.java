@@ -0,0 +1,349 @@
+package com.idea.bench;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @ClassName: SyntheticData
+ * @Description: 基准测试用的合成数据，固定随机种子，保证每次生成的内容一致 <br>
+ *  1. Postman集合文件：可指定请求数、目录嵌套深度、form-data字段数，附带response、event、auth等无关子树
+ *  2. eh_dynamic_grid_config行：data_source、grid、options字段的JSON与线上配置结构一致，
+ *     可直接生成查询结果行，也可批量写入数据库表（如H2的MySQL模式），写表时按比例复制已有的grid/options，模拟复制的页面
+ * @Author: yuanbao
+ * @Date: 2025/3/28
+ **/
+public class SyntheticData
+{
+    private static final JsonFactory factory = new JsonFactory();
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String[] METHODS = { "selectList", "selectPage", "selectTree", "save", "delete" };
+
+    private SyntheticData()
+    {
+    }
+
+    /**
+     * @MethodName: writePostmanCollection
+     * @Description: 生成Postman集合文件。约五分之三的请求匹配默认的 !select.*\.m$ 规则
+     * @param file 输出文件
+     * @param requests 请求总数
+     * @param depth 目录嵌套深度，0表示请求直接位于顶层
+     * @param formFields 每个请求的form-data字段数
+     * @param seed 随机种子
+     * @Return void
+     **/
+    public static void writePostmanCollection(Path file, int requests, int depth, int formFields, long seed) throws IOException
+    {
+        Random random = new Random(seed);
+        try (JsonGenerator gen = factory.createGenerator(file.toFile(), JsonEncoding.UTF8))
+        {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("info");
+            gen.writeStringField("name", "synthetic-" + requests);
+            gen.writeStringField("schema", "https://schema.getpostman.com/json/collection/v2.1.0/collection.json");
+            gen.writeEndObject();
+
+            gen.writeArrayFieldStart("item");
+            // 每10个请求一个顶层目录，目录内按depth继续嵌套
+            int written = 0;
+            int folder = 0;
+            while (written < requests)
+            {
+                int count = Math.min(10, requests - written);
+                writeFolder(gen, random, "目录" + folder++, depth, written, count, formFields);
+                written += count;
+            }
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("event");
+            gen.writeStartObject();
+            gen.writeStringField("listen", "prerequest");
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * @MethodName: writePostmanCollections
+     * @Description: 生成多个Postman集合文件，请求数平均分配，文件名为"V5.2-moduleN.postman_collection.json"（与Sheet名称的提取规则一致，使用ASCII避免依赖文件系统编码）
+     * @param dir 输出目录，不存在时自动创建
+     * @param requests 请求总数
+     * @param files 文件数
+     * @param depth 目录嵌套深度
+     * @param formFields 每个请求的form-data字段数
+     * @param seed 随机种子
+     * @Return void
+     **/
+    public static void writePostmanCollections(Path dir, int requests, int files, int depth, int formFields, long seed) throws IOException
+    {
+        Files.createDirectories(dir);
+        for (int i = 0; i < files; i++)
+        {
+            int count = requests / files + (i < requests % files ? 1 : 0);
+            writePostmanCollection(dir.resolve("V5.2-module" + i + ".postman_collection.json"), count, depth, formFields, seed + i);
+        }
+    }
+
+    private static void writeFolder(JsonGenerator gen, Random random, String name, int depth, int start, int count, int formFields)
+            throws IOException
+    {
+        if (depth <= 0)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                writeRequest(gen, random, start + i, formFields);
+            }
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("name", name);
+        gen.writeArrayFieldStart("item");
+        writeFolder(gen, random, name + "-" + depth, depth - 1, start, count, formFields);
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeRequest(JsonGenerator gen, Random random, int index, int formFields) throws IOException
+    {
+        String method = METHODS[random.nextInt(METHODS.length)];
+        gen.writeStartObject();
+        gen.writeStringField("name", "功能" + index);
+
+        gen.writeObjectFieldStart("request");
+        gen.writeStringField("method", "POST");
+        gen.writeArrayFieldStart("header");
+        gen.writeEndArray();
+        gen.writeObjectFieldStart("auth");
+        gen.writeStringField("type", "noauth");
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("body");
+        gen.writeStringField("mode", "formdata");
+        gen.writeArrayFieldStart("formdata");
+        for (int i = 0; i < formFields; i++)
+        {
+            gen.writeStartObject();
+            gen.writeStringField("key", "field" + i);
+            // 部分字段为空值或JSON字符串
+            gen.writeStringField("value", i % 5 == 4 ? "" : i % 5 == 3 ? "{\"prop\":\"p" + i + "\",\"order\":\"asc\"}" : "v" + random.nextInt(1000));
+            gen.writeStringField("type", "text");
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeStringField("url", "{{url}}/mes/module" + (index % 50) + "Bean!" + method + ".m");
+        gen.writeEndObject();
+
+        // 导出的集合常带有保存的示例响应，体积较大
+        gen.writeArrayFieldStart("response");
+        gen.writeStartObject();
+        gen.writeStringField("name", "示例响应");
+        gen.writeStringField("body", randomText(random, 512));
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("event");
+        gen.writeStartObject();
+        gen.writeStringField("listen", "test");
+        gen.writeObjectFieldStart("script");
+        gen.writeArrayFieldStart("exec");
+        gen.writeString("pm.test('ok', function () { pm.response.to.have.status(200); });");
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * @MethodName: gridConfigRows
+     * @Description: 生成eh_dynamic_grid_config的查询结果行
+     * @param rows 行数
+     * @param sqlType true为search_type='sql'的行（带options），false为search_type='common'的行
+     * @param seed 随机种子
+     * @Return List<Map<String,Object>>
+     **/
+    public static List<Map<String, Object>> gridConfigRows(int rows, boolean sqlType, long seed)
+    {
+        Random random = new Random(seed);
+        List<Map<String, Object>> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++)
+        {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("table_title", "动态表格" + i);
+            row.put("data_source", dataSource(random, i));
+            row.put("grid", grid(random, 8 + random.nextInt(24)));
+            if (sqlType)
+            {
+                row.put("options", options(random, i));
+            }
+            list.add(row);
+        }
+        return list;
+    }
+
+    /**
+     * @MethodName: createGridConfigTable
+     * @Description: 创建eh_dynamic_grid_config表（只含导出用到的字段），已存在时先删除
+     * @param con 数据库连接
+     * @Return void
+     **/
+    public static void createGridConfigTable(Connection con) throws SQLException
+    {
+        try (Statement st = con.createStatement())
+        {
+            st.execute("drop table if exists eh_dynamic_grid_config");
+            st.execute("create table eh_dynamic_grid_config(id bigint auto_increment primary key, table_title varchar(200),"
+                    + " data_source longtext, grid longtext, options longtext, is_delete int default 0, search_type varchar(20))");
+        }
+    }
+
+    /**
+     * @MethodName: insertGridConfigRows
+     * @Description: 向eh_dynamic_grid_config批量写入行，逐批生成，内存占用与行数无关。
+     *  按cloneRatio的比例复制最近生成的grid（sql方式同时复制options），模拟复制页面产生的重复配置
+     * @param con 数据库连接，写入期间关闭自动提交，每批提交一次
+     * @param rows 行数
+     * @param searchType common或sql
+     * @param cloneRatio 复制已有配置的行所占比例，0到1
+     * @param seed 随机种子
+     * @Return void
+     **/
+    public static void insertGridConfigRows(Connection con, int rows, String searchType, double cloneRatio, long seed) throws SQLException
+    {
+        Random random = new Random(seed);
+        boolean sqlType = "sql".equals(searchType);
+        // 可被复制的配置，保留最近的若干个
+        String[][] recent = new String[256][];
+        int generated = 0;
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("insert into eh_dynamic_grid_config(table_title,data_source,grid,options,"
+                + "is_delete,search_type) values(?,?,?,?,0,?)"))
+        {
+            for (int i = 0; i < rows; i++)
+            {
+                String[] config;
+                if (generated > 0 && random.nextDouble() < cloneRatio)
+                {
+                    config = recent[random.nextInt(Math.min(generated, recent.length))];
+                } else
+                {
+                    config = new String[] { grid(random, 8 + random.nextInt(24)), sqlType ? options(random, i) : null };
+                    recent[generated++ % recent.length] = config;
+                }
+                ps.setString(1, "动态表格" + i);
+                ps.setString(2, dataSource(random, i));
+                ps.setString(3, config[0]);
+                ps.setString(4, config[1]);
+                ps.setString(5, searchType);
+                ps.addBatch();
+                if (i % 1000 == 999)
+                {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        } finally
+        {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * data_source：bean、method、params
+     */
+    public static String dataSource(Random random, int index)
+    {
+        ObjectNode ds = mapper.createObjectNode();
+        ds.put("bean", "module" + (index % 50) + "Bean");
+        ds.put("method", METHODS[random.nextInt(3)]);
+        if (random.nextBoolean())
+        {
+            ObjectNode params = ds.putObject("params");
+            params.put("type", String.valueOf(random.nextInt(5)));
+            params.put("status", "A");
+        }
+        ds.put("pageSize", 20);
+        return ds.toString();
+    }
+
+    /**
+     * grid：columns（含refEntity、refName、pass）及defaultSort，另带若干无关的展示属性
+     */
+    public static String grid(Random random, int columnCount)
+    {
+        ObjectNode grid = mapper.createObjectNode();
+        ArrayNode columns = grid.putArray("columns");
+        for (int c = 0; c < columnCount; c++)
+        {
+            ObjectNode column = columns.addObject();
+            column.put("label", "列" + c);
+            column.put("prop", "field" + c);
+            column.put("width", 80 + random.nextInt(120));
+            column.put("align", "center");
+            column.put("sortable", random.nextBoolean());
+            if (c % 4 == 1)
+            {
+                column.put("refEntity", "Ref" + c);
+                column.put("refName", "name");
+            }
+            if (c % 7 == 6)
+            {
+                column.put("pass", true);
+            }
+            column.put("formatter", "function(row){return row.field" + c + ";}");
+        }
+        ObjectNode defaultSort = grid.putObject("defaultSort");
+        defaultSort.put("prop", "createTime");
+        defaultSort.put("order", random.nextBoolean() ? "descending" : "ascending");
+        grid.put("stripe", true);
+        grid.put("border", true);
+        grid.put("height", 500);
+        return grid.toString();
+    }
+
+    /**
+     * options：extraParamFields为字符串形式的JSON，其中包含queryString
+     */
+    public static String options(Random random, int index)
+    {
+        ObjectNode extra = mapper.createObjectNode();
+        extra.put("queryString", "select t.id,t.code,t.name,t.create_time from mes_table_" + (index % 50)
+                + " t where t.is_delete = 0 and t.status = '" + random.nextInt(5) + "' order by t.create_time desc");
+        ObjectNode options = mapper.createObjectNode();
+        options.put("extraParamFields", extra.toString());
+        options.put("showSearch", true);
+        return options.toString();
+    }
+
+    private static String randomText(Random random, int length)
+    {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -1,23 +1,56 @@
 package com.idea;
 
-import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
 import com.google.gson.*;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.idea.excel.ExcelWorkbookFactory;
+import com.idea.export.ExportProgress;
+import com.idea.grid.GridConfigExtractor;
+import com.idea.grid.GridConfigMemo;
+import com.idea.grid.GridInfo;
+import com.idea.metrics.StageTimings;
+import com.idea.pipeline.OrderedPipeline;
+import com.idea.report.ReportColumn;
+import com.idea.report.ReportSink;
+import com.idea.report.ReportSinks;
+import com.idea.report.SpooledReportSink;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.ObjectUtils;
 
-import java.io.FileOutputStream;
+import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * @ClassName: DatasourceAnalyzer
@@ -33,12 +66,105 @@ public class DatasourceAnalyzer
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    // 指标注册表，不在Spring容器中运行时使用全局注册表
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
     private static final String OUTPUT_DIR = "input/";
 
+    // 输出文件名（不含扩展名）
+    private static final String OUTPUT_FILE_NAME = "V55_EH_GRID_OUTPUT";
+
+    // 报表列：序号、功能名、请求URL、请求Form-data、Grid配置，后三列自动换行
+    private static final ReportColumn[] COLUMNS = {
+            new ReportColumn("序号", 5, false),
+            new ReportColumn("功能名", 30, false),
+            new ReportColumn("请求URL", 40, true),
+            new ReportColumn("请求Form-Data", 80, true),
+            new ReportColumn("Grid配置", 60, true)
+    };
+
+    // 输出格式：xlsx（默认）、csv、jsonl
+    @Value("${export.format:xlsx}")
+    private String outputFormat = "xlsx";
+
+    // 流式输出时内存中保留的行数
+    @Value("${export.excel.row-window:500}")
+    private int rowWindow = ExcelWorkbookFactory.DEFAULT_ROW_WINDOW;
+
+    // 流式输出的临时文件是否压缩
+    @Value("${export.excel.compress-temp-files:true}")
+    private boolean compressTempFiles = true;
+
+    // 总行数达到该值时使用流式输出，按上一次导出的行数判断
+    @Value("${export.excel.streaming-threshold:50000}")
+    private long streamingThreshold = ExcelWorkbookFactory.DEFAULT_STREAMING_THRESHOLD;
+
+    // 查询的fetchSize，MySQL驱动下Integer.MIN_VALUE为逐行流式读取；
+    // 也可在url中加useCursorFetch=true并设置为正数，按批次游标读取
+    @Value("${export.jdbc.fetch-size:-2147483648}")
+    private int fetchSize = Integer.MIN_VALUE;
+
+    // 并行转换的线程数，小于1时取CPU核数
+    @Value("${export.pipeline.workers:0}")
+    private int pipelineWorkers = 0;
+
+    // 流水线队列容量，即同时处理中的最大行数
+    @Value("${export.pipeline.queue-capacity:256}")
+    private int pipelineQueueCapacity = 256;
+
+    // 默认的数据指纹查询：行数和最大id，只读主键索引，每次/t1/latest请求（包括返回304的）都会执行；
+    // 新增、删除行时变化，原地修改已有行不变化，此时由缓存的存活时间（export.cache.ttl）兜底
+    private static final String DEFAULT_FINGERPRINT_SQL = "select count(*), coalesce(max(t.id), 0) from eh_dynamic_grid_config t";
+
+    // 数据指纹查询，只返回一行，列数不限；需要感知原地修改时可配置为按更新时间或全字段校验和计算
+    @Value("${export.cache.fingerprint-sql:" + DEFAULT_FINGERPRINT_SQL + "}")
+    private String fingerprintSql = DEFAULT_FINGERPRINT_SQL;
+
+    // 行映射，与queryForList得到的Map结构一致
+    private static final ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+
+    // data_source、grid、options的单遍提取
+    private static final GridConfigExtractor extractor = new GridConfigExtractor();
+
+    // grid、options提取结果各自缓存的最大条数，小于1时不缓存
+    @Value("${export.grid-memo.max-entries:1024}")
+    private int gridMemoMaxEntries = 1024;
+
+    // 相同的grid、options只提取一次（复制出的页面配置相同）；跨导出保留，在initGridMemo中按配置的条数创建
+    private GridConfigMemo gridMemo;
+
+    // 上一次导出的总行数，用于选择Excel的输出方式（不再为此单独执行count查询）；尚未导出过时为-1，使用流式输出
+    private volatile long lastRowCount = -1;
+
+    // 正在进行的导出，以输出格式为键；同一格式的并发调用合并为一次导出
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
     static {
         log.info("--------程序启动了");
     }
 
+    /**
+     * 按配置的条数创建提取结果缓存，并注册命中、未命中次数和缓存条数的指标
+     */
+    @PostConstruct
+    void initGridMemo()
+    {
+        gridMemo = new GridConfigMemo(extractor, gridMemoMaxEntries);
+        bindMemoMetrics("grid", gridMemo.grids());
+        bindMemoMetrics("options", gridMemo.queryStrings());
+    }
+
+    private void bindMemoMetrics(String name, GridConfigMemo.Cache<?> cache)
+    {
+        FunctionCounter.builder("export.grid.memo", cache, GridConfigMemo.Cache::getHits)
+                .tags("cache", name, "result", "hit").description("提取结果缓存的命中次数").register(meterRegistry);
+        FunctionCounter.builder("export.grid.memo", cache, GridConfigMemo.Cache::getMisses)
+                .tags("cache", name, "result", "miss").description("提取结果缓存的未命中次数").register(meterRegistry);
+        Gauge.builder("export.grid.memo.size", cache, GridConfigMemo.Cache::size)
+                .tag("cache", name).description("提取结果缓存的条数").register(meterRegistry);
+    }
+
     public static void main(String[] args) throws Exception
     {
         //        MysqlDataSourceCfg.getConnection();
@@ -55,397 +181,506 @@ public class DatasourceAnalyzer
      **/
     public void getDataFromMysql() throws IOException
     {
-        // 使用springboot的方式获取数据
-        // 动态表格配置的数据源分两部分，一部分是写接口url方式，一部分是写sql方式
-
-        // 接口url方式
-        String sql = "select t.table_title,t.data_source,t.grid from eh_dynamic_grid_config t where t.is_delete = 0" +
-                " and t.table_title is not null and t.search_type='common'";
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(sql);
-        log.info("查询接口结果数量：" + list.size());
-        // sql方式
-        String sql2 = "select t.table_title,t.data_source,t.grid,t.options from eh_dynamic_grid_config t where t.is_delete = 0" +
-                " and t.search_type='sql'";
-        List<Map<String, Object>> list2 = jdbcTemplate.queryForList(sql2);
-        log.info("查询SQL结果数量：" + list2.size());
-
-        // 数据处理
-        List<Map<String, Object>> resultList = transformData(list);
-        List<Map<String, Object>> resultList2 = transformData2(list2);
-
-        // 生成excel文件
-        generateExcel(resultList, resultList2);
+        export(Paths.get(OUTPUT_DIR), new ExportProgress());
     }
 
     /**
-     * @MethodName: transformData
-     * @Description: 转换其中的数据，如拼接出url等。动态表格配置中主要取用data_source和grid字段
-     * @param list
-     * @Return List<Map<String,Object>>
-     * @Author: yuanbao
-     * @Date: 2025/3/10
+     * @MethodName: export
+     * @Description: 导出V55动态表格配置到指定目录，并在导出过程中更新进度；进度被取消时中止导出。
+     *  已有相同参数的导出正在进行时不再重复查询，等待其完成后将结果发布到本次的输出目录，进度也随之同步；
+     *  进行中的导出被其发起方取消时，其余调用重新发起导出
+     * @param outputDir 输出目录，不存在时自动创建
+     * @param progress 导出进度
+     * @Return Path 生成的文件
      **/
-    private List<Map<String, Object>> transformData(List<Map<String, Object>> list)
+    public Path export(Path outputDir, ExportProgress progress) throws IOException
     {
-        // 遍历处理list
-        for (Map<String, Object> map : list)
+        while (true)
         {
-            String tableTitle = (String) map.get("table_title");
-            String dataSource = (String) map.get("data_source");
-            String grid = (String) map.get("grid");
-            // dataSource中包含请求信息，进行处理为url
-            if (!ObjectUtils.isEmpty(dataSource))
+            Flight flight = new Flight(progress);
+            Flight running = inFlight.putIfAbsent(outputFormat, flight);
+            if (running == null)
             {
-                JSONObject objDS = JSONObject.parseObject(dataSource);
-                if (objDS.containsKey("bean") && objDS.containsKey("method"))
+                // 发起导出
+                progress.follow(null);
+                try
                 {
-                    String bean = objDS.getString("bean");
-                    String method = objDS.getString("method");
-                    String url = bean + "!" + method + ".m";
-
-                    // 如果包含了param传参，则拼接到url后面
-                    if (objDS.containsKey("params"))
-                    {
-                        JSONObject objParams = objDS.getJSONObject("params");
-                        if (objParams != null)
-                        {
-                            String paramStr = "";
-                            for (String key : objParams.keySet())
-                            {
-                                String value = objParams.getString(key);
-                                paramStr += key + "=" + value + "&";
-                            }
-                            if (!ObjectUtils.isEmpty(paramStr) && paramStr.endsWith("&"))
-                            {
-                                paramStr = paramStr.substring(0, paramStr.length() - 1);
-                                url += "?" + paramStr;
-                            }
-                        }
-                    }
-                    map.put("url", url);
+                    Path outputFile = runExport(outputDir, progress);
+                    flight.result.complete(outputFile);
+                    return outputFile;
+                } catch (Throwable e)
+                {
+                    flight.result.completeExceptionally(e);
+                    throw e;
+                } finally
+                {
+                    inFlight.remove(outputFormat, flight);
                 }
+            }
 
-                // 处理grid信息，从中提取columns和defaultSort信息，并合并到data_source中
-                JSONObject objGridNew = extractGridInfo(grid, objDS);
-                map.put("grid", objGridNew.toJSONString()); // 覆盖旧grid
+            // 合并到正在进行的导出
+            log.info("已有导出正在进行，等待其完成");
+            progress.follow(running.progress);
+            Path shared;
+            try
+            {
+                shared = await(running.result);
+            } catch (IOException | RuntimeException e)
+            {
+                if (Thread.currentThread().isInterrupted() || progress.isCancelled() || !running.progress.isCancelled())
+                {
+                    throw e; // 本次调用被取消，或导出本身失败
+                }
+                continue; // 发起方被取消，重新发起
+            }
+            Path outputFile = Files.createDirectories(outputDir).resolve(shared.getFileName());
+            ReportSinks.publishCopy(shared, outputFile);
+            return outputFile;
+        }
+    }
 
-                // 更新data_source
-                map.put("data_source", objDS.toJSONString());
+    /**
+     * @MethodName: fingerprint
+     * @Description: 动态表格配置的数据指纹：执行指纹查询，将结果与输出格式一起计算摘要。
+     *  指纹不变时导出结果不变，可直接使用之前生成的文件
+     * @Return String 十六进制摘要
+     **/
+    public String fingerprint()
+    {
+        StringBuilder state = new StringBuilder(outputFormat);
+        jdbcTemplate.query(fingerprintSql, (ResultSet rs) -> {
+            int columns = rs.getMetaData().getColumnCount();
+            for (int i = 1; i <= columns; i++)
+            {
+                state.append('\u0001').append(rs.getString(i));
             }
+        });
+        return DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+    }
 
-        }
-        return list;
+    /**
+     * 输出格式
+     */
+    public String getOutputFormat()
+    {
+        return outputFormat;
     }
 
-    /***
-     * @MethodName: transformData2
-     * @Description: 转换其中的数据，如提取出sql。动态表格配置中主要取用options和grid字段。
-     * @param list
-     * @Return List<Map<String,Object>>
-     * @Author: yuanbao
-     * @Date: 2025/3/12
+    /**
+     * @MethodName: exportTo
+     * @Description: 导出V55动态表格配置并直接写入输出流（如HTTP响应），不生成本地文件。
+     *  CSV、JSON Lines边生成边写出；XLSX总是使用流式工作簿，内存中只保留rowWindow行，生成完成后写出
+     * @param out 输出流，不会被关闭
+     * @param progress 导出进度
+     * @Return void
      **/
-    private List<Map<String, Object>> transformData2(List<Map<String, Object>> list)
+    public void exportTo(OutputStream out, ExportProgress progress) throws IOException
     {
-        // 遍历处理list
-        for (Map<String, Object> map : list)
-        {
-            String dataSource = (String) map.get("data_source");
-            String options = (String) map.get("options");
-            String grid = (String) map.get("grid");
+        ExcelWorkbookFactory workbookFactory = new ExcelWorkbookFactory(rowWindow, compressTempFiles, 0);
+        writeReport(progress, expectedRows -> ReportSinks.create(outputFormat, out, workbookFactory, expectedRows));
+    }
 
-            // dataSource中包含请求信息，进行处理为url
-            if (!ObjectUtils.isEmpty(dataSource))
-            {
-                JSONObject objDS = JSONObject.parseObject(dataSource);
-                if (objDS.containsKey("bean") && objDS.containsKey("method"))
-                {
-                    String bean = objDS.getString("bean");
-                    String method = objDS.getString("method");
-                    String url = bean + "!" + method + ".m";
-                    map.put("url", url);
-                }
+    /**
+     * 输出文件名（含扩展名）
+     */
+    public String getOutputFileName()
+    {
+        return OUTPUT_FILE_NAME + "." + outputFormat;
+    }
 
-                // options中包含sql，进行提取
-                if (!ObjectUtils.isEmpty(options))
+    /**
+     * 执行一次导出
+     */
+    private Path runExport(Path outputDir, ExportProgress progress) throws IOException
+    {
+        Path outputBase = Files.createDirectories(outputDir).resolve(OUTPUT_FILE_NAME);
+        // Excel行数较多时使用流式输出
+        ExcelWorkbookFactory workbookFactory = new ExcelWorkbookFactory(rowWindow, compressTempFiles, streamingThreshold);
+        writeReport(progress, expectedRows -> ReportSinks.create(outputFormat, outputBase, workbookFactory, expectedRows));
+        Path outputFile = ReportSinks.outputFile(outputFormat, outputBase);
+        meterRegistry.counter("export.output.bytes", "format", outputFormat).increment(Files.size(outputFile));
+        log.info("Excel文件生成成功：" + outputFile.toAbsolutePath());
+        return outputFile;
+    }
+
+    /**
+     * 按预估行数创建报表输出
+     */
+    private interface SinkFactory
+    {
+        ReportSink create(long expectedRows) throws IOException;
+    }
+
+    /**
+     * 查询、转换两部分配置并写入报表输出
+     */
+    private void writeReport(ExportProgress progress, SinkFactory sinkFactory) throws IOException
+    {
+        long startNanos = System.nanoTime();
+        boolean succeeded = false;
+        StageTimings stages = progress.stages();
+        // 使用springboot的方式获取数据
+        // 动态表格配置的数据源分两部分，一部分是写接口url方式，一部分是写sql方式
+
+        // 接口url方式
+        String sql = "select t.table_title,t.data_source,t.grid from eh_dynamic_grid_config t where t.is_delete = 0" +
+                " and t.table_title is not null and t.search_type='common'";
+        // sql方式
+        String sql2 = "select t.table_title,t.data_source,t.grid,t.options from eh_dynamic_grid_config t where t.is_delete = 0" +
+                " and t.search_type='sql'";
+
+        // 两部分互不依赖：sql方式在单独的线程中（使用单独的连接）查询、转换并暂存其Sheet，
+        // 接口url方式在当前线程中直接写入，两者都完成后合并到同一个文件
+        ExecutorService workers = OrderedPipeline.newWorkerPool(pipelineWorkers, "grid-transform");
+        ExecutorService branchExecutor = Executors.newSingleThreadExecutor();
+        SpooledReportSink spool = new SpooledReportSink();
+        // 任一部分出错时记录其异常，另一部分在读取下一行前停止并抛出该异常
+        AtomicReference<Throwable> aborted = new AtomicReference<>();
+        Future<Long> branch2 = null;
+        try
+        {
+            branch2 = branchExecutor.submit(() -> {
+                try
                 {
-                    JSONObject objOtions = JSONObject.parseObject(options);
-                    if (objOtions.containsKey("extraParamFields"))
-                    {
-                        String extraParamFields = objOtions.getString("extraParamFields");
-                        JSONObject objExtraParamFields = JSONObject.parseObject(extraParamFields);
-                        if (objExtraParamFields.containsKey("queryString"))
-                        {
-                            String sql = objExtraParamFields.getString("queryString");
-
-                            // 将sql语句放入到data_source里
-                            objDS.put("queryString", sql);
-                        }
-                    }
+                    spool.startSheet("V55动态表格SQL", COLUMNS);
+                    long rows = streamRows(sql2, spool, this::transformRow2, workers, progress, aborted);
+                    spool.finish();
+                    return rows;
+                } catch (Throwable e)
+                {
+                    aborted.compareAndSet(null, e);
+                    throw e;
                 }
+            });
 
-                // 处理grid信息，从中提取columns和defaultSort信息，并合并到data_source中
-                JSONObject objGridNew = extractGridInfo(grid, objDS);
-                map.put("grid", objGridNew.toJSONString()); // 覆盖旧grid
-
-                // 更新data_source
-                map.put("data_source", objDS.toJSONString());
+            // 数据逐行读取，总行数在读取完成后才知道：Excel的输出方式按上一次导出的行数选择，首次导出使用流式输出
+            long expectedRows = lastRowCount;
+            try (ReportSink sink = sinkFactory.create(expectedRows < 0 ? Long.MAX_VALUE : expectedRows))
+            {
+                // 1、处理接口url的结果集
+                sink.startSheet("V55动态表格请求", COLUMNS);
+                long count = streamRows(sql, sink, this::transformRow, workers, progress, aborted);
+                log.info("查询接口结果数量：" + count);
+
+                // 2、等待sql方式处理完成，写入其Sheet
+                long count2 = await(branch2);
+                log.info("查询SQL结果数量：" + count2);
+                progress.setTotalRows(count + count2);
+                lastRowCount = count + count2;
+                long replayStart = System.nanoTime();
+                spool.replayTo(sink);
+                stages.since("replay", replayStart);
+
+                // 3、写入文件
+                long finishStart = System.nanoTime();
+                sink.finish();
+                stages.since("finish", finishStart);
+                succeeded = true;
+            } catch (InterruptedIOException e)
+            {
+                throw e; // 已取消
+            } catch (IOException e)
+            {
+                e.printStackTrace();
+                System.err.println("写入Excel文件出错：" + e.toString());
+                throw new RuntimeException("写入Excel文件出错：" + e.toString());
             }
+        } catch (Throwable e)
+        {
+            aborted.compareAndSet(null, e);
+            throw e;
+        } finally
+        {
+            // 出错或取消时停止sql方式的处理，等待其线程结束后再删除暂存文件
+            if (branch2 != null && !succeeded)
+            {
+                branch2.cancel(true);
+            }
+            OrderedPipeline.shutdownAndAwait(branchExecutor);
+            OrderedPipeline.shutdownAndAwait(workers);
+            spool.close();
+            recordMetrics(progress, succeeded, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 记录一次导出的指标：总耗时、各阶段耗时和行数
+     */
+    private void recordMetrics(ExportProgress progress, boolean succeeded, long elapsedNanos)
+    {
+        String outcome = succeeded ? "success" : progress.isCancelled() ? "cancelled" : "error";
+        meterRegistry.timer("export.duration", "format", outputFormat, "outcome", outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        progress.stages().publish(meterRegistry, "export.stage", "format", outputFormat);
+        meterRegistry.counter("export.rows", "stage", "read").increment(progress.getRowsRead());
+        meterRegistry.counter("export.rows", "stage", "written").increment(progress.getRowsWritten());
+        log.info("导出各阶段耗时（毫秒）：" + progress.getStageMillis());
+        log.info("grid提取缓存（累计）：命中" + gridMemo.grids().getHits() + "，未命中" + gridMemo.grids().getMisses()
+                + "；options提取缓存（累计）：命中" + gridMemo.queryStrings().getHits() + "，未命中" + gridMemo.queryStrings().getMisses());
+    }
+
+    /**
+     * 一次正在进行的导出
+     */
+    private static final class Flight
+    {
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
 
+        private final ExportProgress progress;
 
+        Flight(ExportProgress progress)
+        {
+            this.progress = progress;
         }
-        return list;
     }
 
-
     /**
-     * @MethodName: extractGridInfo
-     * @Description: 提取并处理grid中的columns和defaultSort信息，并合并到data_source中
-     * @param grid 待处理的grid配置信息
-     * @param objDS 待完善的data_source信息
-     * @Return JSONObject
-     * @Author: yuanbao
-     * @Date: 2025/3/12
-     **/
-    private JSONObject extractGridInfo(String grid, JSONObject objDS)
+     * 等待另一个线程的结果，异常原样抛出
+     */
+    private static <V> V await(Future<V> future) throws IOException
     {
-        JSONObject objGridNew = new JSONObject(); // 提取并处理后的column信息
-        if (!ObjectUtils.isEmpty(grid))
+        try
+        {
+            return future.get();
+        } catch (InterruptedException e)
         {
-            JSONObject jsonObject = JSONObject.parseObject(grid);
-            // 提取columns信息
-            if (jsonObject.containsKey("columns"))
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待处理结果被中断");
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
             {
-                // columns为数组，遍历提取
-                String columns = jsonObject.getString("columns");
-                if (!ObjectUtils.isEmpty(columns))
-                {
-                    JSONArray jsonArray = JSONArray.parseArray(columns);
-                    JSONArray jsonArrayNew = new JSONArray();
-                    for (int i = 0; i < jsonArray.size(); i++)
-                    {
-                        JSONObject column = jsonArray.getJSONObject(i);
-                        String label = column.getString("label");
-                        String prop = column.getString("prop");
-
-                        JSONObject objNew = new JSONObject();
-                        // 增加判定如果字段设置为忽略了，则不添加进columns中. 注意不是isIgnore，而是pass
-                        if (column.containsKey("pass") && column.getBoolean("pass"))
-                        {
-                            continue;
-                        }
-
-//                        objNew.put("label", label);
-                        objNew.put("name", prop); // prop 改为name
-
-                        // refEntity和refName 不一定有，有则加入
-                        String refEntity = column.getString("refEntity");
-                        String refName = column.getString("refName");
-                        if (!ObjectUtils.isEmpty(refEntity))
-                        {
-                            objNew.put("refEntity", refEntity);
-                        }
-                        if (!ObjectUtils.isEmpty(refName))
-                        {
-                            objNew.put("refName", refName);
-                        }
-                        jsonArrayNew.add(objNew);
-                    }
-                    objGridNew.put("columns", jsonArrayNew);
-                    // 将columns信息合并到data_source中
-                    objDS.put("columns", jsonArrayNew);
-                }
+                throw (IOException) cause;
             }
-
-            // 提取defaultSort信息
-            if (jsonObject.containsKey("defaultSort"))
+            if (cause instanceof RuntimeException)
             {
-                String defaultSort = jsonObject.getString("defaultSort");
-                if (!ObjectUtils.isEmpty(defaultSort))
-                {
-                    JSONObject objDefaultSort = JSONObject.parseObject(defaultSort);
-                    objGridNew.put("defaultSort", objDefaultSort);
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
 
-                    // 将defaultSort信息合并到data_source中
-                    if (objDefaultSort.containsKey("prop"))
+    /**
+     * @MethodName: streamRows
+     * @Description: 以流水线方式处理查询结果：当前线程逐行读取，工作线程并行转换，写线程按读取顺序写入当前Sheet。
+     *  各阶段之间为有界队列，内存占用与表大小无关
+     * @param sql 查询语句
+     * @param sink 报表输出
+     * @param transform 单行转换（transformRow或transformRow2）
+     * @param workers 转换线程池
+     * @param progress 导出进度
+     * @param aborted 另一部分处理出错时的异常，不为空时停止读取
+     * @Return long 写入的行数
+     **/
+    private long streamRows(String sql, ReportSink sink, Consumer<Map<String, Object>> transform, ExecutorService workers,
+            ExportProgress progress, AtomicReference<Throwable> aborted) throws IOException
+    {
+        int[] rowNum = { 0 };
+        StageTimings stages = progress.stages();
+        try (OrderedPipeline<Map<String, Object>, Map<String, Object>> pipeline = new OrderedPipeline<>("grid-export", workers,
+                pipelineQueueCapacity, map -> {
+                    long start = System.nanoTime();
+                    transform.accept(map);
+                    stages.since("transform", start);
+                    progress.rowTransformed();
+                    return map;
+                }, map -> {
+                    long start = System.nanoTime();
+                    createDataRow(sink, ++rowNum[0], map);
+                    stages.since("write", start);
+                    progress.rowWritten();
+                }))
+        {
+            // 读取耗时为查询总耗时减去等待流水线队列的时间
+            long queryStart = System.nanoTime();
+            long[] queueWait = { 0 };
+            try
+            {
+                jdbcTemplate.query(streamingStatement(sql), (ResultSet rs) -> {
+                    try
                     {
-                        // 排序字段
-                        objDS.put("sidx", objDefaultSort.getString("prop"));
-                    }
-                    if (objDefaultSort.containsKey("order"))
+                        progress.checkCancelled();
+                        checkAborted(aborted);
+                        progress.rowRead();
+                        Map<String, Object> row = rowMapper.mapRow(rs, 0);
+                        long submitStart = System.nanoTime();
+                        pipeline.submit(row);
+                        queueWait[0] += System.nanoTime() - submitStart;
+                    } catch (IOException e)
                     {
-                        // 排序方式
-                        objDS.put("sord", objDefaultSort.getString("order"));
+                        throw new UncheckedIOException(e);
                     }
-                }
+                });
+            } catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            } finally
+            {
+                stages.record("query", System.nanoTime() - queryStart - queueWait[0]);
+                stages.record("queue-wait", queueWait[0]);
             }
+            return pipeline.finish();
         }
-        return objGridNew;
     }
 
     /**
-     * @MethodName: generateExcel
-     * @Description: 生成excel文件
-     * @param list 接口url的结果集
-     * @param list2 sql的结果集
-     * @Return void
+     * 另一部分已出错时抛出其异常
+     */
+    private static void checkAborted(AtomicReference<Throwable> aborted) throws IOException
+    {
+        Throwable failure = aborted.get();
+        if (failure == null)
+        {
+            return;
+        }
+        if (failure instanceof IOException)
+        {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        throw new IOException(failure);
+    }
+
+    /**
+     * 创建只进只读的查询语句并设置fetchSize，使驱动逐行（或按批次）返回结果，而不是一次读入全部结果集
+     */
+    private PreparedStatementCreator streamingStatement(String sql)
+    {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        };
+    }
+
+    /**
+     * @MethodName: transformData
+     * @Description: 转换其中的数据，如拼接出url等。动态表格配置中主要取用data_source和grid字段
+     * @param list
+     * @Return List<Map<String,Object>>
      * @Author: yuanbao
      * @Date: 2025/3/10
      **/
-    private static void generateExcel(List<Map<String, Object>> list, List<Map<String, Object>> list2) throws IOException
+    List<Map<String, Object>> transformData(List<Map<String, Object>> list)
     {
-        // 创建Excel工作簿和工作表
-        Workbook workbook = new XSSFWorkbook();
-
-        // 1、处理接口url的结果集
-        Sheet sheet = workbook.createSheet("V55动态表格请求");
-        // 创建表头行
-        createHeaderRow(sheet);
-        // 填充数据
-        createDataRow(sheet, list);
-
-        // 2、处理sql的结果集
-        Sheet sheet2 = workbook.createSheet("V55动态表格SQL");
-        createHeaderRow(sheet2);
-        createDataRow2(sheet2, list2);
-
-        // 3、写入文件
-        // 按日模式和月模式分别生成不同的文件名
-        String fileName ="V55_EH_GRID_OUTPUT.xlsx";
-        Path excelPath = Paths.get(OUTPUT_DIR, fileName);
-        try (FileOutputStream fileOut = new FileOutputStream(excelPath.toFile()))
-        {
-            workbook.write(fileOut);
-        } catch (IOException e)
+        // 遍历处理list
+        for (Map<String, Object> map : list)
         {
-            e.printStackTrace();
-            System.err.println("写入Excel文件出错：" + e.toString());
-            throw new RuntimeException("写入Excel文件出错：" + e.toString());
+            transformRow(map);
         }
-
-        // 关闭工作簿
-        workbook.close();
-        log.info("Excel文件生成成功：" + excelPath.toAbsolutePath());
+        return list;
     }
 
     /**
-     * @MethodName: createHeaderRow
-     * @Description: 创建表头行
-     * @param sheet
+     * @MethodName: transformRow
+     * @Description: 转换接口url方式的单行数据，结果写回map（url、data_source、grid）
+     * @param map 查询结果的一行
      * @Return void
-     */
-    private static void createHeaderRow(Sheet sheet)
+     **/
+    void transformRow(Map<String, Object> map)
     {
-        // 表头
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"序号", "功能名", "请求URL", "请求Form-Data", "Grid配置"};
-        for (int i = 0; i < headers.length; i++)
+        String dataSource = (String) map.get("data_source");
+        String grid = (String) map.get("grid");
+        // dataSource中包含请求信息，bean、method和params拼接为url；
+        // 同时提取grid中的columns和defaultSort信息，合并到data_source中
+        if (!ObjectUtils.isEmpty(dataSource))
         {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-
-            // 设置列宽
-            sheet.setColumnWidth(i, 256 * 30); // 每列宽度为20个字符
-
-            // 特殊列宽设置
-            if (i == 0)
-            {
-                sheet.setColumnWidth(i, 256 * 5); // 第1列宽度为5个字符
-            } else if (i == 2)
-            {
-                sheet.setColumnWidth(i, 256 * 40); // 第3列宽度为40个字符
-            } else if (i == 3)
-            {
-                sheet.setColumnWidth(i, 256 * 80); // 第4列宽度为120个字符
-            } else if (i == 4)
-            {
-                sheet.setColumnWidth(i, 256 * 60); // 最后一列宽度
-            }
+            GridConfigExtractor.Result result = extractor.extract(dataSource, extractGridInfo(grid), Collections.emptyMap(), true);
+            putResult(map, result);
+        }
+    }
 
-            // 设置自动换行
-            CellStyle wrapStyle = sheet.getWorkbook().createCellStyle();
-            wrapStyle.setWrapText(true);
-            wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER);            // 设置垂直居中
-            cell.setCellStyle(wrapStyle);
+    /***
+     * @MethodName: transformData2
+     * @Description: 转换其中的数据，如提取出sql。动态表格配置中主要取用options和grid字段。
+     * @param list
+     * @Return List<Map<String,Object>>
+     * @Author: yuanbao
+     * @Date: 2025/3/12
+     **/
+    List<Map<String, Object>> transformData2(List<Map<String, Object>> list)
+    {
+        // 遍历处理list
+        for (Map<String, Object> map : list)
+        {
+            transformRow2(map);
         }
+        return list;
     }
 
     /**
-     * @MethodName: createDataRow
-     * @Description: 填充数据
-     * @param sheet
-     * @param list
+     * @MethodName: transformRow2
+     * @Description: 转换sql方式的单行数据，结果写回map（url、data_source、grid）
+     * @param map 查询结果的一行
      * @Return void
-     */
-    private static void createDataRow(Sheet sheet, List<Map<String, Object>> list)
+     **/
+    void transformRow2(Map<String, Object> map)
     {
-        for (int i = 0; i < list.size(); i++)
+        String dataSource = (String) map.get("data_source");
+        String options = (String) map.get("options");
+        String grid = (String) map.get("grid");
+
+        // dataSource中包含请求信息，bean、method拼接为url；
+        // options中包含sql，提取后与grid中的columns和defaultSort信息一起合并到data_source中
+        if (!ObjectUtils.isEmpty(dataSource))
         {
-            Map<String, Object> map = list.get(i);
-            Row row = sheet.createRow(i + 1);
-            row.createCell(0).setCellValue(i + 1);
-            row.createCell(1).setCellValue((String) map.get("table_title"));
-
-            // 创建自动换行的样式
-            CellStyle wrapStyle = sheet.getWorkbook().createCellStyle();
-            wrapStyle.setWrapText(true);
-            wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER); // 设置垂直居中
-
-            // url列
-            Cell urlCell = row.createCell(2);
-            urlCell.setCellStyle(wrapStyle);
-            urlCell.setCellValue((String) map.get("url"));
-
-            // Form-data列
-            Cell formdataCell = row.createCell(3);
-            formdataCell.setCellStyle(wrapStyle);
-            formdataCell.setCellValue((String) map.get("data_source")); // 不用formatJSON格式化了
-
-            // Grid配置列
-            Cell gridCell = row.createCell(4);
-            gridCell.setCellStyle(wrapStyle);
-            gridCell.setCellValue((String) map.get("grid"));
+            GridConfigExtractor.Result result = extractor.extract(dataSource, extractGridInfo(grid),
+                    gridMemo.extractQueryString(options), false);
+            putResult(map, result);
         }
     }
 
     /**
-     * @MethodName: createDataRow2
-     * @Description: 填充数据-针对SQL的结果集
-     * @param sheet2
-     * @param list2
-     * @Return void
-     * @Author: yuanbao
-     * @Date: 2025/3/12
+     * @MethodName: extractGridInfo
+     * @Description: 提取并处理grid中的columns和defaultSort信息，用于合并到data_source中；相同的grid只提取一次
+     * @param grid 待处理的grid配置信息
+     * @Return GridInfo
      **/
-    private static void createDataRow2(Sheet sheet2, List<Map<String, Object>> list2)
+    GridInfo extractGridInfo(String grid)
+    {
+        return gridMemo.extractGridInfo(grid);
+    }
+
+    /**
+     * 将处理结果写回行数据：url（有bean和method时）、grid（覆盖旧grid）、data_source
+     */
+    private static void putResult(Map<String, Object> map, GridConfigExtractor.Result result)
     {
-        for (int i = 0; i < list2.size(); i++)
+        if (result.getUrl() != null)
         {
-            Map<String, Object> map = list2.get(i);
-            Row row = sheet2.createRow(i + 1);
-            row.createCell(0).setCellValue(i + 1);
-            row.createCell(1).setCellValue((String) map.get("table_title"));
-
-            // 创建自动换行的样式
-            CellStyle wrapStyle = sheet2.getWorkbook().createCellStyle();
-            wrapStyle.setWrapText(true);
-            wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER); // 设置垂直居中
-
-            // url列
-            Cell urlCell = row.createCell(2);
-            urlCell.setCellStyle(wrapStyle);
-            urlCell.setCellValue((String) map.get("url"));
-
-            // Form-data列
-            Cell formdataCell = row.createCell(3);
-            formdataCell.setCellStyle(wrapStyle);
-            formdataCell.setCellValue((String) map.get("data_source"));
-
-            // Grid配置列
-            Cell gridCell = row.createCell(4);
-            gridCell.setCellStyle(wrapStyle);
-            gridCell.setCellValue((String) map.get("grid"));
+            map.put("url", result.getUrl());
         }
+        map.put("grid", result.getGrid());
+        map.put("data_source", result.getDataSource());
+    }
+
+    /**
+     * @MethodName: createDataRow
+     * @Description: 填充一行数据，两个Sheet的列结构相同
+     * @param sink 报表输出
+     * @param rowNum 序号
+     * @param map 转换后的一行数据
+     * @Return void
+     */
+    private static void createDataRow(ReportSink sink, int rowNum, Map<String, Object> map) throws IOException
+    {
+        sink.startRow();
+        sink.cell(rowNum);
+        sink.cell((String) map.get("table_title"));
+        // url列
+        sink.cell((String) map.get("url"));
+        // Form-data列
+        sink.cell((String) map.get("data_source")); // 不用formatJSON格式化了
+        // Grid配置列
+        sink.cell((String) map.get("grid"));
+        sink.endRow();
     }
 
 
@@ -2,20 +2,57 @@ package com.idea;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.idea.excel.ExcelWorkbookFactory;
+import com.idea.metrics.StageTimings;
+import com.idea.pipeline.OrderedPipeline;
+import com.idea.postman.FormDataFormatter;
+import com.idea.postman.PostmanRequestSpliterator;
+import com.idea.postman.PostmanStreamParser;
+import com.idea.postman.RecordCache;
+import com.idea.postman.RequestRecord;
+import com.idea.postman.UrlRuleMatcher;
+import com.idea.profiling.FileStats;
+import com.idea.profiling.FileTrace;
+import com.idea.profiling.FileTraces;
+import com.idea.report.ReportColumn;
+import com.idea.report.ReportSink;
+import com.idea.report.ReportSinks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @ClassName: PostJsonAnalyzer
@@ -31,9 +68,50 @@ public class PostJsonAnalyzer
     // JSON解析工具
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    // Form-data格式化工具，内部复用缓冲区，每个线程一个
+    private static final ThreadLocal<FormDataFormatter> formatter = ThreadLocal.withInitial(FormDataFormatter::new);
+
     // URL匹配模式，仅处理包含!select*.m的请求
     private static final String URL_PATTERN = "!select.*\\.m$";
 
+    // 输出文件名（不含扩展名），生成在输入目录下
+    private static final String OUTPUT_FILE_NAME = "output";
+
+    // 报表列：序号、功能名、请求URL、请求Form-data（自动换行）
+    private static final ReportColumn[] COLUMNS = {
+            new ReportColumn("序号", 5, false),
+            new ReportColumn("功能名", 30, false),
+            new ReportColumn("请求URL", 40, false),
+            new ReportColumn("请求Form-Data", 120, true)
+    };
+
+    // 输出格式：xlsx（默认）、csv、jsonl
+    private static String outputFormat = "xlsx";
+
+    // URL规则匹配器，默认仅包含URL_PATTERN一条规则
+    private static UrlRuleMatcher urlMatcher = new UrlRuleMatcher(Collections.singletonList(URL_PATTERN), Collections.emptyList());
+
+    // 解析模式：stream为流式解析（默认），tree为整体读取为JsonNode树后解析
+    private static String parserMode = "stream";
+
+    // 并行解析的线程数，1为逐个文件串行处理
+    private static int threads = 1;
+
+    // 预估每个请求在JSON文件中占用的字节数，用于根据文件大小预估行数
+    private static final long BYTES_PER_REQUEST_ESTIMATE = 2048;
+
+    // Excel工作簿工厂，预估行数达到阈值时使用流式输出
+    private static ExcelWorkbookFactory workbookFactory = new ExcelWorkbookFactory();
+
+    // 请求记录的磁盘缓存，为null表示不启用
+    private static RecordCache recordCache;
+
+    // 命令行运行的指标（各次生成累计），--stats时在程序退出时输出
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // 按文件的耗时和内存分配统计，--stats时启用，程序退出时输出
+    private static FileStats fileStats;
+
     // 静态初始化块
     static
     {
@@ -56,6 +134,21 @@ public class PostJsonAnalyzer
      *         1. 输入目录（可选，默认为jar所在目录，可传参 "input/"）
      *         2. 输出文件（可选，默认为 "output.xlsx"）
      *         3. URL匹配模式（可选，默认为 "!select.*\\.m$"）
+     *   可选项（--key=value形式，位置不限）：
+     *         --parser=stream|tree  解析模式，默认stream流式解析，大文件内存占用恒定
+     *         --threads=N           并行解析的线程数，默认1；大于1时多个文件并行解析，Sheet仍按文件名顺序生成
+     *         --row-window=N        流式输出时内存中保留的行数，默认500
+     *         --compress-temp=true|false  流式输出的临时文件是否压缩，默认true
+     *         --streaming-threshold=N     预估行数达到该值时使用流式输出，默认50000，为0时总是流式输出
+     *         --include=REGEX       URL包含规则，可重复指定；指定后替换默认的URL匹配模式
+     *         --exclude=REGEX       URL排除规则，可重复指定
+     *         --rules=FILE          规则文件，每行一条，- 开头为排除规则，其余为包含规则，# 开头为注释
+     *         --cache-dir=DIR       启用增量缓存，内容未变化的文件直接读取缓存的请求记录，跳过解析
+     *         --watch               监听模式，输入目录中的JSON文件变化后仅重新解析变化的文件并重新生成Excel
+     *         --debounce-ms=N       监听模式下事件的合并等待时间，默认500毫秒
+     *         --format=xlsx|csv|jsonl     输出格式，默认xlsx；csv和jsonl输出到同一个文件，以sheet列区分
+     *         --stats               程序退出时输出按文件的统计表：耗时、分配的内存、请求数和每秒请求数，以及各阶段耗时、行数等指标的累计值
+     *   另外，文件解析、请求提取和Sheet写入会记录为JFR事件（com.idea.FileParse等），开启Flight Recording即可查看
      * @throws Exception
      *         异常处理
      */
@@ -74,11 +167,46 @@ public class PostJsonAnalyzer
         // 参数初始化
         String inputDirStr = jarDir; // 默认输入目录为jar所在目录
 
-        // 解析命令行参数
-        if (args.length >= 1)
+        // 解析命令行参数，--开头的为可选项，其余为位置参数
+        List<String> positionalArgs = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, positionalArgs);
+        if (positionalArgs.size() >= 1)
+        {
+            inputDirStr = positionalArgs.get(0);
+        }
+        urlMatcher = buildUrlMatcher(positionalArgs, options);
+        System.out.println("URL匹配规则：" + urlMatcher);
+        outputFormat = options.getOrDefault("format", outputFormat);
+        parserMode = options.getOrDefault("parser", parserMode);
+        if (!"stream".equals(parserMode) && !"tree".equals(parserMode))
+        {
+            throw new IllegalArgumentException("不支持的解析模式: " + parserMode + "，可选值为 stream 或 tree");
+        }
+        if (options.containsKey("cache-dir"))
         {
-            inputDirStr = args[0];
+            recordCache = new RecordCache(Paths.get(options.get("cache-dir")), urlMatcher.toString(), parserMode);
         }
+        if (options.containsKey("threads"))
+        {
+            threads = Integer.parseInt(options.get("threads"));
+            if (threads < 1)
+            {
+                throw new IllegalArgumentException("线程数必须大于0: " + threads);
+            }
+        }
+        if (Boolean.parseBoolean(options.getOrDefault("stats", "false")))
+        {
+            FileStats stats = new FileStats();
+            fileStats = stats;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                stats.print(System.out);
+                printMetrics(System.out);
+            }, "file-stats"));
+        }
+        workbookFactory = new ExcelWorkbookFactory(
+                Integer.parseInt(options.getOrDefault("row-window", String.valueOf(ExcelWorkbookFactory.DEFAULT_ROW_WINDOW))),
+                Boolean.parseBoolean(options.getOrDefault("compress-temp", "true")),
+                Long.parseLong(options.getOrDefault("streaming-threshold", String.valueOf(ExcelWorkbookFactory.DEFAULT_STREAMING_THRESHOLD))));
         
         // 校验输入目录是否存在
         Path inputDir = Paths.get(inputDirStr);
@@ -87,7 +215,13 @@ public class PostJsonAnalyzer
             throw new IllegalArgumentException("输入目录不存在或不是一个有效的目录: " + inputDirStr);
         }
 
-        analysisAndSolve(inputDir);
+        if (Boolean.parseBoolean(options.getOrDefault("watch", "false")))
+        {
+            watchAndSolve(inputDir, Long.parseLong(options.getOrDefault("debounce-ms", "500")));
+        } else
+        {
+            analysisAndSolve(inputDir);
+        }
     }
 
     /**
@@ -100,38 +234,362 @@ public class PostJsonAnalyzer
      **/
     private static void analysisAndSolve(Path inputDir) throws IOException
     {
-        // 创建输出文件
-        String outputFileStr = inputDir.toString() + "/output.xlsx";
-        Path outputFile = Paths.get(outputFileStr);
-        try
+        // 输出文件，写入临时文件后替换，已存在的旧文件在替换前仍可正常读取
+        Path outputBase = inputDir.resolve(OUTPUT_FILE_NAME);
+
+        // 遍历输入目录下的所有JSON文件，按文件名排序保证Sheet顺序固定
+        List<Path> jsonFiles = listJsonFiles(inputDir);
+
+        // 根据文件总大小预估行数，决定是否使用流式输出
+        long totalBytes = 0;
+        for (Path jsonFile : jsonFiles)
         {
-            Files.deleteIfExists(outputFile); // 如果文件已存在，先删除
-        } catch (IOException e)
+            totalBytes += Files.size(jsonFile);
+        }
+
+        // 创建报表输出（默认为Excel工作簿）
+        Run run = new Run();
+        try (ReportSink sink = ReportSinks.create(outputFormat, outputBase, workbookFactory, totalBytes / BYTES_PER_REQUEST_ESTIMATE))
         {
-            throw new RuntimeException("删除输出文件失败: " + outputFileStr, e);
+            if (threads > 1)
+            {
+                processFilesParallel(jsonFiles, sink, run);
+            } else
+            {
+                jsonFiles.forEach(path -> processFile(path, sink, run)); // 处理每个文件
+            }
+
+            // 写入输出文件
+            long finishStart = System.nanoTime();
+            sink.finish();
+            run.stages.since("finish", finishStart);
+            recordMetrics(run, totalBytes, ReportSinks.outputFile(outputFormat, outputBase));
+
+            // 清理已失效的缓存
+            pruneCache(jsonFiles);
+        } catch (Exception e)
+        {
+            throw new RuntimeException("创建Excel工作簿失败", e);
         }
 
+    }
+
+    /**
+     * @MethodName: watchAndSolve
+     * @Description: 监听模式：先完整生成一次Excel，之后监听输入目录，
+     *  JSON文件新增、修改或删除时，合并一段时间内的事件，只重新解析变化的文件，再重新生成Excel
+     * @param inputDir 输入目录
+     * @param debounceMs 事件合并等待时间，该时间内没有新事件才开始处理
+     * @Return void
+     **/
+    private static void watchAndSolve(Path inputDir, long debounceMs) throws IOException, InterruptedException
+    {
+        Path outputBase = inputDir.resolve(OUTPUT_FILE_NAME);
 
-        // 创建Excel工作簿
-        try (Workbook workbook = new XSSFWorkbook())
+        // 各文件的请求记录，按文件名排序
+        Map<Path, List<RequestRecord>> recordsByFile = new TreeMap<>(Comparator.comparing(path -> path.getFileName().toString()));
+        Run initial = new Run();
+        for (Path jsonFile : listJsonFiles(inputDir))
         {
-            // 遍历输入目录下的所有JSON文件
-            Files.list(inputDir).filter(path -> path.toString().endsWith(".json")) // 仅处理JSON文件
-                    .forEach(path -> processFile(path, workbook)); // 处理每个文件
+            reloadRecords(jsonFile, recordsByFile, initial);
+        }
+        writeReport(recordsByFile, outputBase, initial);
+        pruneCache(recordsByFile.keySet());
+
+        try (WatchService watchService = inputDir.getFileSystem().newWatchService())
+        {
+            inputDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            System.out.println("开始监听目录：" + inputDir.toAbsolutePath());
 
-            // 将工作簿写入输出文件
-            try (OutputStream os = Files.newOutputStream(outputFile))
+            while (true)
+            {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collectChanges(watchService.take(), inputDir, changed);
+                // 等待事件平息，合并一次导出产生的多个事件
+                WatchKey key;
+                while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null)
+                {
+                    overflow |= collectChanges(key, inputDir, changed);
+                }
+
+                if (overflow)
+                {
+                    // 事件丢失时重新扫描整个目录
+                    recordsByFile.clear();
+                    changed.addAll(listJsonFiles(inputDir));
+                }
+                if (changed.isEmpty())
+                {
+                    continue;
+                }
+                Run run = new Run();
+                for (Path jsonFile : changed)
+                {
+                    System.out.println("文件变化：" + jsonFile.getFileName());
+                    reloadRecords(jsonFile, recordsByFile, run);
+                }
+                try
+                {
+                    writeReport(recordsByFile, outputBase, run);
+                    pruneCache(recordsByFile.keySet());
+                } catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * 清理已失效的缓存（文件已变化或已删除），未启用缓存时不处理
+     *
+     * @param liveFiles
+     *         当前的JSON文件
+     */
+    private static void pruneCache(Collection<Path> liveFiles) throws IOException
+    {
+        if (recordCache != null)
+        {
+            int removed = recordCache.prune(liveFiles);
+            if (removed > 0)
+            {
+                System.out.println("清理过期缓存：" + removed + "个");
+            }
+        }
+    }
+
+    /**
+     * 收集一个WatchKey中的JSON文件变化
+     *
+     * @return 是否发生了事件溢出
+     */
+    private static boolean collectChanges(WatchKey key, Path inputDir, Set<Path> changed)
+    {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
             {
-                workbook.write(os);
-            } catch (Exception e)
+                overflow = true;
+                continue;
+            }
+            Path jsonFile = inputDir.resolve((Path) event.context());
+            if (jsonFile.toString().endsWith(".json"))
             {
-                throw new RuntimeException("写入Excel文件失败: " + outputFileStr, e);
+                changed.add(jsonFile);
             }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    /**
+     * 重新解析单个文件的请求记录，文件已删除时移除；解析失败时保留原有记录，等待下一次变化
+     */
+    private static void reloadRecords(Path jsonFile, Map<Path, List<RequestRecord>> recordsByFile, Run run)
+    {
+        if (!Files.exists(jsonFile))
+        {
+            recordsByFile.remove(jsonFile);
+            return;
+        }
+        try
+        {
+            recordsByFile.put(jsonFile, extractRecords(jsonFile, run));
         } catch (Exception e)
         {
-            throw new RuntimeException("创建Excel工作簿失败", e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 根据已提取的请求记录生成报表
+     *
+     * @param recordsByFile
+     *         各文件的请求记录，按Sheet顺序排列
+     * @param outputBase
+     *         输出文件（不含扩展名）
+     * @param run
+     *         本次生成的统计，包含之前重新解析的耗时
+     */
+    private static void writeReport(Map<Path, List<RequestRecord>> recordsByFile, Path outputBase, Run run) throws IOException
+    {
+        long totalRows = 0;
+        for (List<RequestRecord> dataList : recordsByFile.values())
+        {
+            totalRows += dataList.size();
+        }
+        try (ReportSink sink = ReportSinks.create(outputFormat, outputBase, workbookFactory, totalRows))
+        {
+            for (Map.Entry<Path, List<RequestRecord>> entry : recordsByFile.entrySet())
+            {
+                try
+                {
+                    writeSheet(sink, entry.getKey(), entry.getValue(), run);
+                } catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+            long finishStart = System.nanoTime();
+            sink.finish();
+            run.stages.since("finish", finishStart);
+        }
+        recordMetrics(run, 0, ReportSinks.outputFile(outputFormat, outputBase));
+        System.out.println("报表已生成：" + ReportSinks.outputFile(outputFormat, outputBase).toAbsolutePath());
+    }
+
+    /**
+     * 开始一段按文件的统计，未启用--stats时返回null
+     */
+    private static FileStats.Span startStats(Path jsonFile)
+    {
+        FileStats stats = fileStats;
+        return stats == null ? null : stats.start(jsonFile.getFileName().toString());
+    }
+
+    private static void endStats(FileStats.Span span, int requests)
+    {
+        if (span != null)
+        {
+            span.end(requests);
+        }
+    }
+
+    /**
+     * 一次生成的统计：开始时间、各阶段耗时（parse、write、finish）和写入的行数，随调用逐层传递
+     */
+    private static final class Run
+    {
+        private final long startNanos = System.nanoTime();
+
+        private final StageTimings stages = new StageTimings();
+
+        private final LongAdder rowsWritten = new LongAdder();
+    }
+
+    /**
+     * 记录一次生成的指标到命令行的指标注册表，并输出各阶段耗时
+     */
+    private static void recordMetrics(Run run, long inputBytes, Path outputFile) throws IOException
+    {
+        long rows = run.rowsWritten.sum();
+        meterRegistry.timer("postman.duration", "format", outputFormat).record(System.nanoTime() - run.startNanos, TimeUnit.NANOSECONDS);
+        run.stages.publish(meterRegistry, "postman.stage", "format", outputFormat);
+        meterRegistry.counter("postman.rows").increment(rows);
+        meterRegistry.counter("postman.input.bytes").increment(inputBytes);
+        meterRegistry.counter("postman.output.bytes", "format", outputFormat).increment(Files.size(outputFile));
+        System.out.println("各阶段耗时（毫秒）：" + run.stages.toMillis() + "，写入行数：" + rows);
+    }
+
+    /**
+     * 输出命令行的指标（各次生成累计）：计时器输出次数和累计耗时，计数器输出累计值
+     */
+    private static void printMetrics(PrintStream out)
+    {
+        List<Meter> meters = new ArrayList<>(meterRegistry.getMeters());
+        meters.sort(Comparator.comparing(meter -> meter.getId().getName() + meter.getId().getTags()));
+        out.println("指标（各次生成累计）：");
+        for (Meter meter : meters)
+        {
+            StringBuilder line = new StringBuilder("  ").append(meter.getId().getName());
+            for (Tag tag : meter.getId().getTags())
+            {
+                line.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+            }
+            if (meter instanceof Timer)
+            {
+                Timer timer = (Timer) meter;
+                line.append(String.format("  %d次，累计%.1fms", timer.count(), timer.totalTime(TimeUnit.MILLISECONDS)));
+            } else if (meter instanceof Counter)
+            {
+                line.append(String.format("  %.0f", ((Counter) meter).count()));
+            }
+            out.println(line);
         }
+    }
+
+    /**
+     * 列出输入目录下的所有JSON文件，按文件名排序
+     */
+    private static List<Path> listJsonFiles(Path inputDir) throws IOException
+    {
+        try (Stream<Path> paths = Files.list(inputDir))
+        {
+            return paths.filter(path -> path.toString().endsWith(".json")) // 仅处理JSON文件
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+    }
 
+    /**
+     * 根据命令行参数构建URL规则匹配器：第3个位置参数、--include、--rules中的包含规则合并，
+     * 均未指定时使用默认的URL_PATTERN
+     *
+     * @param positionalArgs
+     *         位置参数
+     * @param options
+     *         可选项
+     * @return URL规则匹配器
+     */
+    private static UrlRuleMatcher buildUrlMatcher(List<String> positionalArgs, Map<String, String> options) throws IOException
+    {
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        if (positionalArgs.size() >= 3)
+        {
+            includes.add(positionalArgs.get(2));
+        }
+        if (options.containsKey("include"))
+        {
+            includes.addAll(Arrays.asList(options.get("include").split("\n")));
+        }
+        if (options.containsKey("exclude"))
+        {
+            excludes.addAll(Arrays.asList(options.get("exclude").split("\n")));
+        }
+        if (options.containsKey("rules"))
+        {
+            UrlRuleMatcher.loadRules(Paths.get(options.get("rules")), includes, excludes);
+        }
+        if (includes.isEmpty())
+        {
+            includes.add(URL_PATTERN);
+        }
+        return new UrlRuleMatcher(includes, excludes);
+    }
+
+    /**
+     * 解析命令行参数
+     *
+     * @param args
+     *         命令行参数
+     * @param positionalArgs
+     *         用于接收位置参数（非--开头的参数）
+     * @return 可选项键值对，--flag形式的开关值为"true"，重复指定的可选项以换行符连接
+     */
+    private static Map<String, String> parseOptions(String[] args, List<String> positionalArgs)
+    {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args)
+        {
+            if (arg.startsWith("--"))
+            {
+                int idx = arg.indexOf('=');
+                if (idx > 0)
+                {
+                    options.merge(arg.substring(2, idx), arg.substring(idx + 1), (a, b) -> a + "\n" + b);
+                } else
+                {
+                    options.put(arg.substring(2), "true");
+                }
+            } else
+            {
+                positionalArgs.add(arg);
+            }
+        }
+        return options;
     }
 
     /**
@@ -156,34 +614,91 @@ public class PostJsonAnalyzer
      *
      * @param jsonFile
      *         JSON文件路径
-     * @param workbook
-     *         Excel工作簿
+     * @param sink
+     *         报表输出
+     * @param run
+     *         本次生成的统计
      */
-    private static void processFile(Path jsonFile, Workbook workbook)
+    private static void processFile(Path jsonFile, ReportSink sink, Run run)
     {
         try
         {
-            // 解析JSON文件
-            JsonNode root = mapper.readTree(jsonFile.toFile());
             // 提取Sheet名称（从文件名中提取）
             String sheetName = extractSheetName(jsonFile.getFileName().toString());
 
-            // 创建Sheet
-            Sheet sheet = workbook.createSheet(sheetName);
-            // 创建表头行
-            createHeaderRow(sheet);
+            if (recordCache == null)
+            {
+                // 每提取一条请求即写入一行，不保留中间列表
+                // 解析与写入交替进行，解析耗时为总耗时减去写入耗时
+                int[] rowNum = { 1 };
+                long[] writeNanos = { 0 };
+                Consumer<RequestRecord> rowWriter = data -> {
+                    long start = System.nanoTime();
+                    try
+                    {
+                        createDataRow(sink, rowNum[0]++, data);
+                    } catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                    writeNanos[0] += System.nanoTime() - start;
+                };
+                FileStats.Span span = startStats(jsonFile);
+                FileTrace sheetEvent = FileTraces.sheetWrite();
+                FileTrace parseEvent = FileTraces.parse();
+                FileTrace extractEvent = FileTraces.extract();
+                long parseStart = System.nanoTime();
+                sheetEvent.begin();
+                parseEvent.begin();
+                extractEvent.begin();
+                try
+                {
+                    // 文件格式错误时不创建Sheet，与并行处理跳过该文件的结果一致：
+                    // 树解析先读取完整的树，流式解析先检查JSON是否完整，再创建Sheet边解析边写入
+                    if ("stream".equals(parserMode))
+                    {
+                        PostmanStreamParser.check(jsonFile);
+                        sink.startSheet(sheetName, COLUMNS);
+                        PostmanStreamParser.parse(jsonFile, PostJsonAnalyzer::isValidUrl, rowWriter);
+                    } else
+                    {
+                        JsonNode root = mapper.readTree(jsonFile.toFile());
+                        parseEvent.end();
+                        sink.startSheet(sheetName, COLUMNS);
+                        streamRequests(root, false).forEachOrdered(rowWriter);
+                    }
+                } finally
+                {
+                    int rows = rowNum[0] - 1;
+                    run.stages.record("parse", System.nanoTime() - parseStart - writeNanos[0]);
+                    run.stages.record("write", writeNanos[0]);
+                    run.rowsWritten.add(rows);
+                    parseEvent.commit(jsonFile, rows);
+                    extractEvent.commit(jsonFile, rows);
+                    sheetEvent.commit(jsonFile, rows);
+                    endStats(span, rows);
+                }
+                return;
+            }
 
-            // 存储解析后的数据
-            List<Map<String, Object>> dataList = new ArrayList<>();
-            // 递归处理JSON中的item节点
-            processItems(root.path("item"), dataList);
+            // 解析JSON文件（或读取缓存），存储解析后的数据；解析失败时不创建Sheet
+            List<RequestRecord> dataList = extractRecords(jsonFile, run);
 
-            // 将数据写入Sheet
+            // 创建Sheet及表头行，将数据写入Sheet
+            FileStats.Span span = startStats(jsonFile);
+            FileTrace sheetEvent = FileTraces.sheetWrite();
+            sheetEvent.begin();
+            long writeStart = System.nanoTime();
+            sink.startSheet(sheetName, COLUMNS);
             int rowNum = 1;
-            for (Map<String, Object> data : dataList)
+            for (RequestRecord data : dataList)
             {
-                createDataRow(sheet, rowNum++, data);
+                createDataRow(sink, rowNum++, data);
             }
+            run.stages.since("write", writeStart);
+            run.rowsWritten.add(dataList.size());
+            sheetEvent.commit(jsonFile, dataList.size());
+            endStats(span, 0);
         } catch (Exception e)
         {
             e.printStackTrace();
@@ -191,151 +706,235 @@ public class PostJsonAnalyzer
     }
 
     /**
-     * 从文件名中提取Sheet名称
+     * 并行处理多个JSON文件：解析和提取在线程池中并发执行，Sheet由流水线的写线程按文件顺序串行写入。
+     * 同时处理中（已解析未写出）的文件不超过线程数，每个文件写出后其请求记录即可回收
      *
-     * @param fileName
-     *         文件名（如"V5.2-生产执行.postman_collection.json"）
-     * @return Sheet名称（如"生产执行"）
+     * @param jsonFiles
+     *         已排序的JSON文件列表
+     * @param sink
+     *         报表输出
+     * @param run
+     *         本次生成的统计
      */
-    private static String extractSheetName(String fileName)
+    private static void processFilesParallel(List<Path> jsonFiles, ReportSink sink, Run run) throws IOException
     {
-        return fileName.split("-")[1].split("\\.")[0];
+        ExecutorService executor = OrderedPipeline.newWorkerPool(Math.max(1, Math.min(threads, jsonFiles.size())), "postman-parse");
+        try (OrderedPipeline<Path, Map.Entry<Path, List<RequestRecord>>> pipeline = new OrderedPipeline<>("postman", executor, threads,
+                jsonFile -> extractRecordsOrNull(jsonFile, run), parsed -> writeParsedSheet(sink, parsed, run)))
+        {
+            for (Path jsonFile : jsonFiles)
+            {
+                pipeline.submit(jsonFile);
+            }
+            pipeline.finish();
+        } finally
+        {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * 创建表头行，并设置自动调整列宽
-     *
-     * @param sheet
-     *         Excel Sheet
+     * 在工作线程中提取单个文件的请求记录，失败时输出异常并返回空记录（跳过该文件，与串行处理一致）
      */
-    private static void createHeaderRow(Sheet sheet)
+    private static Map.Entry<Path, List<RequestRecord>> extractRecordsOrNull(Path jsonFile, Run run)
     {
-        String[] headers = { "序号", "功能名", "请求URL", "请求Form-Data" };
-        Row headerRow = sheet.createRow(0);
+        try
+        {
+            return new AbstractMap.SimpleImmutableEntry<>(jsonFile, extractRecords(jsonFile, run));
+        } catch (Exception e)
+        {
+            e.printStackTrace();
+            return new AbstractMap.SimpleImmutableEntry<>(jsonFile, null);
+        }
+    }
+
+    /**
+     * 在写线程中写入已提取的文件，跳过提取失败的文件；单个文件写入失败不影响其余文件
+     */
+    private static void writeParsedSheet(ReportSink sink, Map.Entry<Path, List<RequestRecord>> parsed, Run run)
+    {
+        if (parsed.getValue() == null)
+        {
+            return;
+        }
+        try
+        {
+            writeSheet(sink, parsed.getKey(), parsed.getValue(), run);
+        } catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
 
-        for (int i = 0; i < headers.length; i++)
+    /**
+     * 将单个文件的请求记录写入新的Sheet
+     *
+     * @param sink
+     *         报表输出
+     * @param jsonFile
+     *         JSON文件路径，用于生成Sheet名称
+     * @param dataList
+     *         请求记录
+     * @param run
+     *         本次生成的统计
+     */
+    private static void writeSheet(ReportSink sink, Path jsonFile, List<RequestRecord> dataList, Run run) throws IOException
+    {
+        FileStats.Span span = startStats(jsonFile);
+        FileTrace sheetEvent = FileTraces.sheetWrite();
+        sheetEvent.begin();
+        long writeStart = System.nanoTime();
+        sink.startSheet(extractSheetName(jsonFile.getFileName().toString()), COLUMNS);
+        int rowNum = 1;
+        for (RequestRecord data : dataList)
         {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
+            createDataRow(sink, rowNum++, data);
+        }
+        run.stages.since("write", writeStart);
+        run.rowsWritten.add(dataList.size());
+        sheetEvent.commit(jsonFile, dataList.size());
+        endStats(span, 0);
+    }
 
-            // 设置列宽
-            sheet.setColumnWidth(i, 256 * 30); // 每列宽度为30个字符
+    /**
+     * 解析单个JSON文件并提取请求记录，不涉及工作簿，可在任意线程中执行。
+     * 启用缓存时，文件内容未变化则直接返回缓存的记录
+     *
+     * @param jsonFile
+     *         JSON文件路径
+     * @param run
+     *         本次生成的统计
+     * @return 提取出的请求记录
+     */
+    private static List<RequestRecord> extractRecords(Path jsonFile, Run run) throws IOException
+    {
+        FileStats.Span span = startStats(jsonFile);
+        FileTrace extractEvent = FileTraces.extract();
+        extractEvent.begin();
+        long parseStart = System.nanoTime();
+        int requests = 0;
+        try
+        {
+            List<RequestRecord> dataList = extractRecordsUntimed(jsonFile);
+            requests = dataList.size();
+            return dataList;
+        } finally
+        {
+            run.stages.since("parse", parseStart);
+            extractEvent.commit(jsonFile, requests);
+            endStats(span, requests);
+        }
+    }
 
-            // 如果是最后一列，设置列宽宽一点
-            if (i == headers.length - 1)
-            {
-                sheet.setColumnWidth(i, 256 * 120); // 最后一列宽度为120个字符
-            } else if (i == 0)
-            {
-                sheet.setColumnWidth(i, 256 * 5); // 第1列宽度为5个字符
-            } else if (i == 2)
+    private static List<RequestRecord> extractRecordsUntimed(Path jsonFile) throws IOException
+    {
+        String cacheKey = null;
+        if (recordCache != null)
+        {
+            cacheKey = recordCache.key(jsonFile);
+            List<RequestRecord> cached = recordCache.load(cacheKey);
+            if (cached != null)
             {
-                sheet.setColumnWidth(i, 256 * 40); // 第3列宽度为40个字符
+                return cached;
             }
+        }
 
+        List<RequestRecord> dataList;
+        FileTrace parseEvent = FileTraces.parse();
+        parseEvent.begin();
+        if ("stream".equals(parserMode))
+        {
+            dataList = new ArrayList<>();
+            PostmanStreamParser.parse(jsonFile, PostJsonAnalyzer::isValidUrl, dataList::add);
+            parseEvent.commit(jsonFile, dataList.size());
+        } else
+        {
+            JsonNode root = mapper.readTree(jsonFile.toFile());
+            parseEvent.end();
+            // 多线程时按顶层目录并行提取，collect保持原有顺序
+            dataList = streamRequests(root, threads > 1).collect(Collectors.toList());
+            parseEvent.commit(jsonFile, dataList.size());
+        }
 
-            // 设置自动换行
-            CellStyle wrapStyle = sheet.getWorkbook().createCellStyle();
-            wrapStyle.setWrapText(true);
-            wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER);            // 设置垂直居中
-            cell.setCellStyle(wrapStyle);
+        if (recordCache != null)
+        {
+            recordCache.store(cacheKey, dataList);
         }
+        return dataList;
     }
 
     /**
-     * 递归处理JSON中的item节点
+     * 从文件名中提取Sheet名称
      *
-     * @param items
-     *         JSON中的item节点
-     * @param dataList
-     *         存储解析后的数据
+     * @param fileName
+     *         文件名（如"V5.2-生产执行.postman_collection.json"）
+     * @return Sheet名称（如"生产执行"）
      */
-    private static void processItems(JsonNode items, List<Map<String, Object>> dataList)
+    private static String extractSheetName(String fileName)
     {
-        items.forEach(item -> {
-            if (item.has("item"))
-            {
-                // 如果item包含子item，递归处理
-                processItems(item.path("item"), dataList);
-            } else if (isValidRequest(item, URL_PATTERN))
-            {
-                // 如果是有效的请求，提取数据
-                Map<String, Object> data = new LinkedHashMap<>();
-                data.put("name", item.path("name").asText()); // 功能名
-                data.put("url", item.path("request").path("url").asText()); // 请求URL
-                data.put("formdata", processFormData(item)); // 请求Form-data
-                dataList.add(data);
-            }
-        });
+        return fileName.split("-")[1].split("\\.")[0];
     }
 
     /**
-     * 判断请求是否有效（URL匹配指定模式）
+     * 以流的形式遍历JSON中的请求，嵌套的item目录用显式栈展开，按需逐条产出
      *
-     * @param item
-     *         JSON节点
-     * @param urlPattern
-     *         URL匹配模式
-     * @return 是否有效
+     * @param root
+     *         JSON根节点
+     * @param parallel
+     *         是否按顶层目录并行
+     * @return 有效请求的记录流
      */
-    private static boolean isValidRequest(JsonNode item, String urlPattern)
+    static Stream<RequestRecord> streamRequests(JsonNode root, boolean parallel)
     {
-        String url = item.path("request").path("url").asText("");
-        return url.matches(".*" + urlPattern);
+        return PostmanRequestSpliterator.stream(root.path("item"), PostJsonAnalyzer::isValidUrl, parallel);
     }
 
     /**
-     * 处理Form-data，转换为键值对
+     * 判断请求是否有效（URL匹配包含规则且不匹配排除规则）
      *
-     * @param item
-     *         JSON节点
-     * @return Form-data键值对
+     * @param url
+     *         请求URL
+     * @return 是否有效
      */
-    private static Map<String, String> processFormData(JsonNode item)
+    private static boolean isValidUrl(String url)
     {
-        Map<String, String> formDataMap = new LinkedHashMap<>();
-        JsonNode formdata = item.path("request").path("body").path("formdata");
-        formdata.forEach(field -> {
-            String key = field.path("key").asText();
-            String value = field.path("value").asText();
-            if (!value.isEmpty())
-            {
-                formDataMap.put(key, value);
-            }
-        });
-        return formDataMap;
+        return urlMatcher.test(url);
     }
 
     /**
      * 创建数据行
      *
-     * @param sheet
-     *         Excel Sheet
+     * @param sink
+     *         报表输出
      * @param rowNum
      *         行号
      * @param data
-     *         数据
+     *         请求记录
      */
-    private static void createDataRow(Sheet sheet, int rowNum, Map<String, Object> data)
+    private static void createDataRow(ReportSink sink, int rowNum, RequestRecord data) throws IOException
     {
-        Row row = sheet.createRow(rowNum);
+        sink.startRow();
         // 序号列
-        row.createCell(0).setCellValue(rowNum);
+        sink.cell(rowNum);
         // 功能名列
-        row.createCell(1).setCellValue(data.get("name").toString());
+        sink.cell(data.getName());
         // 请求URL列
-        row.createCell(2).setCellValue(data.get("url").toString().replace("{{url}}/", "")); // 将url中的{{url}}/剔除掉
-
-        // 设置Form-data列的样式（自动换行）
-        CellStyle wrapStyle = sheet.getWorkbook().createCellStyle();
-        wrapStyle.setWrapText(true);
-        wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER); // 设置垂直居中
-
+        sink.cell(data.getUrl().replace("{{url}}/", "")); // 将url中的{{url}}/剔除掉
+        // Form-data列（自动换行、垂直居中）
+        sink.cell(formatFormData(data));
+        sink.endRow();
+    }
 
-        // Form-data列
-        Cell formdataCell = row.createCell(3);
-        formdataCell.setCellStyle(wrapStyle);
-        formdataCell.setCellValue(formatFormData((Map<String, String>) data.get("formdata")));
+    /**
+     * 格式化请求记录的Form-data为JSON字符串
+     *
+     * @param data
+     *         请求记录
+     * @return 格式化后的JSON字符串
+     */
+    public static String formatFormData(RequestRecord data)
+    {
+        return formatter.get().format(data);
     }
 
     /**
@@ -347,12 +946,6 @@ public class PostJsonAnalyzer
      */
     public static String formatFormData(Map<String, String> formdata)
     {
-        try
-        {
-            return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formdata).replace("\\\"", "\""); // 去除转义字符
-        } catch (Exception e)
-        {
-            return "{}"; // 异常时返回空JSON
-        }
+        return formatter.get().format(formdata);
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.idea.batch;
+
+import com.idea.DatasourceAnalyzer;
+import com.idea.datasource.MysqlDataSourceCfg;
+import com.idea.export.ExportProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @ClassName: GridExportBatch
+ * @Description: V55动态表格配置导出的批处理入口，供定时任务调用 <br>
+ *  只创建数据源、JdbcTemplate和DatasourceAnalyzer：不启用自动配置，没有Web服务器、JPA/Hibernate和自动建表，
+ *  Bean延迟初始化。配置仍读取application.yml，可用--key=value覆盖，如：
+ *      java -cp ... com.idea.batch.GridExportBatch --output-dir=input/ --export.format=csv
+ *  配合AppCDS归档（见readme）可进一步缩短启动时间
+ * @Author: yuanbao
+ * @Date: 2025/4/18
+ **/
+public class GridExportBatch
+{
+    private static final Logger log = LoggerFactory.getLogger(GridExportBatch.class);
+
+    /**
+     * 批处理所需的最小配置
+     */
+    @Configuration(proxyBeanMethods = false)
+    @Import({ MysqlDataSourceCfg.class, DatasourceAnalyzer.class })
+    static class BatchConfig
+    {
+        @Bean
+        static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer()
+        {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource)
+        {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+
+    /**
+     * 主方法
+     *
+     * @param args
+     *   --output-dir=DIR   输出目录，默认input/
+     *   其余--key=value为Spring配置项，如--export.format、--spring.datasource.url
+     */
+    public static void main(String[] args)
+    {
+        // 不需要后台预初始化（Jackson、校验器等），避免与导出争用CPU
+        System.setProperty("spring.backgroundpreinitializer.ignore", "true");
+        long start = System.nanoTime();
+        int exitCode = 0;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BatchConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .lazyInitialization(true)
+                .run(args))
+        {
+            Path outputDir = Paths.get(context.getEnvironment().getProperty("output-dir", "input/"));
+            Path outputFile = context.getBean(DatasourceAnalyzer.class).export(outputDir, new ExportProgress());
+            log.info("导出完成：" + outputFile.toAbsolutePath() + "，耗时" + (System.nanoTime() - start) / 1000000 + "ms");
+        } catch (Exception e)
+        {
+            log.error("导出失败", e);
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+}
@@ -1,14 +1,41 @@
 package com.idea.controller;
 
 import com.idea.DatasourceAnalyzer;
+import com.idea.export.ExportJob;
+import com.idea.export.ExportJobService;
+import com.idea.export.ExportProgress;
+import com.idea.export.ExportResultCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Controller;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.annotation.PostConstruct;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * @ClassName: HelloController
@@ -19,9 +46,27 @@ import java.io.IOException;
 @RestController
 public class HelloController
 {
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ExportResultCache exportResultCache;
+
     @Autowired
     private DatasourceAnalyzer datasourceAnalyzer;
 
+    // 同时进行的边生成边下载（未命中缓存、直接查询导出）的数量上限
+    @Value("${export.stream.max-concurrent:1}")
+    private int streamMaxConcurrent = 1;
+
+    private Semaphore streamPermits;
+
+    @PostConstruct
+    void init()
+    {
+        streamPermits = new Semaphore(Math.max(1, streamMaxConcurrent));
+    }
+
     @RequestMapping("/")
     public String getHello()
     {
@@ -35,9 +80,12 @@ public class HelloController
         return "Hello, World!";
     }
 
+    /**
+     * 同步导出V55动态表格配置到固定的输出目录，完成后返回结果文字（保留原有的调用方式）
+     */
     @RequestMapping(value = "/t1", method = RequestMethod.GET)
     @ResponseBody
-    public String solveV55Data()
+    public String solveV55DataSync()
     {
         try
         {
@@ -50,4 +98,187 @@ public class HelloController
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 提交V55动态表格配置的导出任务，立即返回任务信息（含任务id），导出在后台执行
+     */
+    @RequestMapping(value = "/t1", method = RequestMethod.POST)
+    public ResponseEntity<Object> solveV55Data()
+    {
+        try
+        {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(exportJobService.submit());
+        } catch (RejectedExecutionException e)
+        {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("导出任务排队已满，请稍后再试");
+        }
+    }
+
+    /**
+     * 下载当前数据对应的导出结果：数据未变化时直接返回缓存的文件；
+     * 请求头If-None-Match与当前数据指纹一致时返回304，不读取文件；
+     * 尚未缓存时不在请求线程中导出，而是提交（或复用进行中的）导出任务并返回202，完成后可再次请求或从任务下载
+     */
+    @RequestMapping(value = "/t1/latest", method = RequestMethod.GET)
+    public ResponseEntity<Object> downloadLatest(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws IOException
+    {
+        String fingerprint = exportResultCache.fingerprint();
+        String etag = ExportResultCache.etag(fingerprint);
+        if (ExportResultCache.matches(ifNoneMatch, fingerprint))
+        {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ExportResultCache.Entry entry = exportResultCache.peek(fingerprint);
+        if (entry == null)
+        {
+            try
+            {
+                ExportJob job = exportJobService.submitIfIdle();
+                return ResponseEntity.status(HttpStatus.ACCEPTED).location(URI.create("/t1/" + job.getId())).body(job);
+            } catch (RejectedExecutionException e)
+            {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("导出任务排队已满，请稍后再试");
+            }
+        }
+        try
+        {
+            // 先打开文件再释放条目，之后条目被淘汰也不影响本次下载
+            InputStream in = Files.newInputStream(entry.getFile());
+            return fileResponse(entry.getFile()).eTag(etag).contentLength(entry.getSize()).body(new InputStreamResource(in));
+        } finally
+        {
+            exportResultCache.release(entry);
+        }
+    }
+
+    /**
+     * 边生成边下载：当前数据已有缓存的导出结果时直接输出该文件；否则导出内容直接写入响应流（分块传输），不生成本地文件。
+     * 直接导出不经过合并和缓存，每个请求各自查询，同时进行的数量受export.stream.max-concurrent限制，超出时返回503。
+     * 导出在异步线程中执行；输出满一个响应缓冲区或导出完成时才提交响应，之前出错返回500；提交后出错时连接被中断，客户端可以发现内容不完整
+     */
+    @RequestMapping(value = "/t1/stream", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> stream() throws IOException
+    {
+        String fingerprint = exportResultCache.fingerprint();
+        ExportResultCache.Entry entry = exportResultCache.peek(fingerprint);
+        if (entry != null)
+        {
+            // 输出完成后才释放条目，输出过程中文件不会被删除
+            StreamingResponseBody body = out -> {
+                try
+                {
+                    Files.copy(entry.getFile(), out);
+                } finally
+                {
+                    exportResultCache.release(entry);
+                }
+            };
+            return fileResponse(entry.getFile()).eTag(entry.getETag()).contentLength(entry.getSize()).body(body);
+        }
+
+        if (!streamPermits.tryAcquire())
+        {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "边生成边下载的请求过多，请稍后再试，或使用/t1/latest");
+        }
+        StreamingResponseBody body = out -> {
+            try
+            {
+                datasourceAnalyzer.exportTo(new NoFlushOutputStream(out), new ExportProgress());
+            } finally
+            {
+                streamPermits.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(datasourceAnalyzer.getOutputFileName(), StandardCharsets.UTF_8).build().toString())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    /**
+     * 全部导出任务
+     */
+    @RequestMapping(value = "/t1/jobs", method = RequestMethod.GET)
+    public List<ExportJob> listJobs()
+    {
+        return exportJobService.list();
+    }
+
+    /**
+     * 导出任务的状态和进度（已读取、已转换、已写出行数）
+     */
+    @RequestMapping(value = "/t1/{id}", method = RequestMethod.GET)
+    public ResponseEntity<ExportJob> getJob(@PathVariable String id)
+    {
+        ExportJob job = exportJobService.get(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    /**
+     * 取消导出任务
+     */
+    @RequestMapping(value = "/t1/{id}/cancel", method = RequestMethod.POST)
+    public ResponseEntity<ExportJob> cancelJob(@PathVariable String id)
+    {
+        ExportJob job = exportJobService.cancel(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    /**
+     * 下载导出结果，任务未成功完成时返回409
+     */
+    @RequestMapping(value = "/t1/{id}/download", method = RequestMethod.GET)
+    public ResponseEntity<Resource> download(@PathVariable String id)
+    {
+        ExportJob job = exportJobService.get(id);
+        if (job == null)
+        {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = job.getOutputFile();
+        if (job.getStatus() != ExportJob.Status.SUCCEEDED || file == null || !Files.exists(file))
+        {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return fileResponse(file).body(new FileSystemResource(file));
+    }
+
+    /**
+     * 忽略flush的输出流：报表输出出错关闭时也会flush，不能因此提前提交响应；导出完成后由框架flush
+     */
+    private static final class NoFlushOutputStream extends FilterOutputStream
+    {
+        NoFlushOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * 以附件方式下载文件的响应头
+     */
+    private static ResponseEntity.BodyBuilder fileResponse(Path file)
+    {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString(), StandardCharsets.UTF_8).build().toString())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
@@ -0,0 +1,268 @@
+package com.idea.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName: DataSourceRegistry
+ * @Description: 命名数据源注册表 <br>
+ *  数据源在配置中定义，连接池在第一次获取连接时才创建，启动时不建立任何连接；
+ *  连接池空闲超过idleShutdown后关闭，之后再使用时重新创建。
+ *  dataSource(name)返回的DataSource每次获取连接时都经过注册表，可直接交给JdbcTemplate使用
+ * @Author: yuanbao
+ * @Date: 2025/4/15
+ **/
+public class DataSourceRegistry implements Closeable
+{
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRegistry.class);
+
+    private final DataSourceRegistryProperties properties;
+
+    // 已创建的连接池，访问时以自身加锁
+    private final Map<String, Pool> pools = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService idleChecker;
+
+    /**
+     * 一个已创建的连接池
+     */
+    private static final class Pool
+    {
+        private final DruidDataSource dataSource;
+
+        // 正在获取连接的线程数，大于0时不关闭
+        private int borrowing;
+
+        // 最近一次使用的时间
+        private long lastUsed = System.currentTimeMillis();
+
+        Pool(DruidDataSource dataSource)
+        {
+            this.dataSource = dataSource;
+        }
+    }
+
+    public DataSourceRegistry(DataSourceRegistryProperties properties)
+    {
+        this.properties = properties;
+        Duration idleShutdown = properties.getIdleShutdown();
+        if (idleShutdown != null && !idleShutdown.isZero())
+        {
+            // 检查间隔为空闲时间的一半，在1秒到1分钟之间
+            long interval = Math.max(1000, Math.min(idleShutdown.toMillis() / 2, 60000));
+            idleChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "datasource-idle-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            idleChecker.scheduleWithFixedDelay(() -> closeIdlePools(idleShutdown.toMillis()), interval, interval, TimeUnit.MILLISECONDS);
+        } else
+        {
+            idleChecker = null;
+        }
+    }
+
+    /**
+     * @MethodName: dataSource
+     * @Description: 指定名称的数据源，连接池在第一次获取连接时创建
+     * @param name 数据源名称
+     * @Return DataSource
+     **/
+    public DataSource dataSource(String name)
+    {
+        source(name); // 名称不存在时立即报错
+        return new AbstractDataSource()
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                return DataSourceRegistry.this.getConnection(name);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException
+            {
+                return DataSourceRegistry.this.getConnection(name, username, password);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "DataSourceRegistry[" + name + "]";
+            }
+        };
+    }
+
+    /**
+     * @MethodName: getConnection
+     * @Description: 从指定名称的连接池获取连接，连接池不存在或已关闭时创建
+     * @param name 数据源名称
+     * @Return Connection
+     **/
+    public Connection getConnection(String name) throws SQLException
+    {
+        return borrow(name, DruidDataSource::getConnection);
+    }
+
+    /**
+     * @MethodName: getConnection
+     * @Description: 以指定的用户名和密码从连接池获取连接，是否支持由Druid判断（需与连接池的用户名一致）
+     * @param name 数据源名称
+     * @param username 用户名
+     * @param password 密码
+     * @Return Connection
+     **/
+    public Connection getConnection(String name, String username, String password) throws SQLException
+    {
+        return borrow(name, ds -> ds.getConnection(username, password));
+    }
+
+    /**
+     * 从连接池获取连接的方式
+     */
+    private interface Connector
+    {
+        Connection connect(DruidDataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * 取得指定名称的连接池（不存在或已关闭时创建），获取连接期间不会被空闲检查关闭
+     */
+    private Connection borrow(String name, Connector connector) throws SQLException
+    {
+        Pool pool;
+        synchronized (pools)
+        {
+            pool = pools.get(name);
+            if (pool == null)
+            {
+                pool = new Pool(createDataSource(name, source(name)));
+                pools.put(name, pool);
+            }
+            pool.borrowing++;
+        }
+        try
+        {
+            return connector.connect(pool.dataSource);
+        } finally
+        {
+            synchronized (pools)
+            {
+                pool.borrowing--;
+                pool.lastUsed = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * @MethodName: openPools
+     * @Description: 当前已创建的连接池（快照），用于监控
+     * @Return Map<String,DruidDataSource>
+     **/
+    public Map<String, DruidDataSource> openPools()
+    {
+        Map<String, DruidDataSource> snapshot = new LinkedHashMap<>();
+        synchronized (pools)
+        {
+            pools.forEach((name, pool) -> snapshot.put(name, pool.dataSource));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 关闭全部连接池
+     */
+    @Override
+    public void close()
+    {
+        if (idleChecker != null)
+        {
+            idleChecker.shutdownNow();
+        }
+        synchronized (pools)
+        {
+            pools.forEach((name, pool) -> pool.dataSource.close());
+            pools.clear();
+        }
+    }
+
+    private DataSourceRegistryProperties.Source source(String name)
+    {
+        DataSourceRegistryProperties.Source source = properties.getSources().get(name);
+        if (source == null)
+        {
+            throw new IllegalArgumentException("未配置数据源：" + name + "，已配置的数据源为 " + properties.getSources().keySet());
+        }
+        return source;
+    }
+
+    /**
+     * 按配置创建连接池，不预先建立连接
+     */
+    private static DruidDataSource createDataSource(String name, DataSourceRegistryProperties.Source source)
+    {
+        log.info("创建数据源连接池：" + name);
+        DruidDataSource ds = new DruidDataSource();
+        ds.setName(name);
+        ds.setUrl(source.getUrl());
+        if (source.getDriverClassName() != null)
+        {
+            ds.setDriverClassName(source.getDriverClassName());
+        }
+        ds.setUsername(source.getUsername());
+        ds.setPassword(source.getPassword());
+        ds.setInitialSize(0);
+        ds.setMinIdle(source.getMinIdle());
+        ds.setMaxActive(source.getMaxActive());
+        ds.setMaxWait(source.getMaxWait().toMillis());
+        ds.setMinEvictableIdleTimeMillis(300000);
+        ds.setTimeBetweenEvictionRunsMillis(60000);// 配置间隔多久才进行一次检测，检测需要关闭的空闲连接，单位是毫秒
+        ds.setTestWhileIdle(true);
+        ds.setTestOnBorrow(false);
+        ds.setTestOnReturn(false);
+        ds.setPoolPreparedStatements(source.isPoolPreparedStatements());
+        ds.setMaxPoolPreparedStatementPerConnectionSize(source.getMaxPreparedStatements());
+        ds.setValidationQuery(source.getValidationQuery());
+        return ds;
+    }
+
+    /**
+     * 关闭空闲超过指定时间且没有借出连接的连接池
+     */
+    private void closeIdlePools(long idleMillis)
+    {
+        long now = System.currentTimeMillis();
+        synchronized (pools)
+        {
+            Iterator<Map.Entry<String, Pool>> iterator = pools.entrySet().iterator();
+            while (iterator.hasNext())
+            {
+                Map.Entry<String, Pool> entry = iterator.next();
+                Pool pool = entry.getValue();
+                if (pool.borrowing > 0 || pool.dataSource.getActiveCount() > 0)
+                {
+                    pool.lastUsed = now; // 使用中
+                } else if (now - pool.lastUsed >= idleMillis)
+                {
+                    iterator.remove();
+                    pool.dataSource.close();
+                    log.info("数据源连接池空闲，已关闭：" + entry.getKey());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.idea.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @ClassName: DataSourceRegistryMetrics
+ * @Description: 注册表中各连接池的指标 <br>
+ *  每个已配置的数据源注册一组仪表（以name标签区分）：借出的连接数、空闲连接数、等待连接的线程数、
+ *  累计等待时间，以及连接池是否已创建。连接池未创建或已因空闲关闭时均为0
+ * @Author: yuanbao
+ * @Date: 2025/4/16
+ **/
+public class DataSourceRegistryMetrics implements MeterBinder
+{
+    private final DataSourceRegistry registry;
+
+    private final DataSourceRegistryProperties properties;
+
+    public DataSourceRegistryMetrics(DataSourceRegistry registry, DataSourceRegistryProperties properties)
+    {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry)
+    {
+        for (String name : properties.getSources().keySet())
+        {
+            gauge(meterRegistry, name, "druid.pool.open", "连接池是否已创建", ds -> 1);
+            gauge(meterRegistry, name, "druid.connections.active", "借出的连接数", DruidDataSource::getActiveCount);
+            gauge(meterRegistry, name, "druid.connections.idle", "空闲连接数", DruidDataSource::getPoolingCount);
+            gauge(meterRegistry, name, "druid.connections.waiting", "等待连接的线程数", DruidDataSource::getWaitThreadCount);
+            gauge(meterRegistry, name, "druid.connections.wait.time", "当前连接池累计等待连接的时间（毫秒）",
+                    DruidDataSource::getNotEmptyWaitMillis);
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String metric, String description, ToDoubleFunction<DruidDataSource> value)
+    {
+        Gauge.builder(metric, registry, r -> {
+            DruidDataSource ds = r.openPools().get(name);
+            return ds == null ? 0 : value.applyAsDouble(ds);
+        }).tag("name", name).description(description).register(meterRegistry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.idea.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @ClassName: DataSourceRegistryProperties
+ * @Description: 命名数据源的配置，对应application.yml中的datasources <br>
+ *  每个数据源一个连接池，连接池大小按批量导出的负载设置：默认最多4个连接，不预先建立连接
+ * @Author: yuanbao
+ * @Date: 2025/4/15
+ **/
+@ConfigurationProperties(prefix = "datasources")
+public class DataSourceRegistryProperties
+{
+    // JdbcTemplate等默认使用的数据源名称
+    private String primary = "apsdb";
+
+    // 连接池空闲（没有借出的连接）超过该时间后关闭，下次使用时重新创建；为0时不关闭
+    private Duration idleShutdown = Duration.ofMinutes(10);
+
+    private Map<String, Source> sources = new LinkedHashMap<>();
+
+    public String getPrimary()
+    {
+        return primary;
+    }
+
+    public void setPrimary(String primary)
+    {
+        this.primary = primary;
+    }
+
+    public Duration getIdleShutdown()
+    {
+        return idleShutdown;
+    }
+
+    public void setIdleShutdown(Duration idleShutdown)
+    {
+        this.idleShutdown = idleShutdown;
+    }
+
+    public Map<String, Source> getSources()
+    {
+        return sources;
+    }
+
+    public void setSources(Map<String, Source> sources)
+    {
+        this.sources = sources;
+    }
+
+    /**
+     * 单个数据源的连接和连接池配置
+     */
+    public static class Source
+    {
+        private String url;
+
+        private String driverClassName;
+
+        private String username;
+
+        private String password;
+
+        // 最大连接数
+        private int maxActive = 4;
+
+        // 最小空闲连接数
+        private int minIdle = 0;
+
+        // 获取连接的最长等待时间
+        private Duration maxWait = Duration.ofSeconds(60);
+
+        // 是否缓存PreparedStatement
+        private boolean poolPreparedStatements = true;
+
+        // 每个连接缓存的PreparedStatement数
+        private int maxPreparedStatements = 20;
+
+        private String validationQuery = "SELECT 1";
+
+        public String getUrl()
+        {
+            return url;
+        }
+
+        public void setUrl(String url)
+        {
+            this.url = url;
+        }
+
+        public String getDriverClassName()
+        {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName)
+        {
+            this.driverClassName = driverClassName;
+        }
+
+        public String getUsername()
+        {
+            return username;
+        }
+
+        public void setUsername(String username)
+        {
+            this.username = username;
+        }
+
+        public String getPassword()
+        {
+            return password;
+        }
+
+        public void setPassword(String password)
+        {
+            this.password = password;
+        }
+
+        public int getMaxActive()
+        {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive)
+        {
+            this.maxActive = maxActive;
+        }
+
+        public int getMinIdle()
+        {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle)
+        {
+            this.minIdle = minIdle;
+        }
+
+        public Duration getMaxWait()
+        {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait)
+        {
+            this.maxWait = maxWait;
+        }
+
+        public boolean isPoolPreparedStatements()
+        {
+            return poolPreparedStatements;
+        }
+
+        public void setPoolPreparedStatements(boolean poolPreparedStatements)
+        {
+            this.poolPreparedStatements = poolPreparedStatements;
+        }
+
+        public int getMaxPreparedStatements()
+        {
+            return maxPreparedStatements;
+        }
+
+        public void setMaxPreparedStatements(int maxPreparedStatements)
+        {
+            this.maxPreparedStatements = maxPreparedStatements;
+        }
+
+        public String getValidationQuery()
+        {
+            return validationQuery;
+        }
+
+        public void setValidationQuery(String validationQuery)
+        {
+            this.validationQuery = validationQuery;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.idea.excel;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * @ClassName: CellStyleRegistry
+ * @Description: 工作簿范围内的单元格样式注册表 <br>
+ *  自动换行样式在工作簿中只创建一次，表头和各行的单元格共用同一个CellStyle实例，
+ *  避免每行、每个单元格都调用createCellStyle()导致styles.xml膨胀，以及超过Excel 64000个样式的上限。
+ *  一个工作簿对应一个注册表，非线程安全，应与工作簿在同一线程中使用
+ * @Author: yuanbao
+ * @Date: 2025/3/21
+ **/
+public class CellStyleRegistry
+{
+    private final Workbook workbook;
+
+    private CellStyle wrapStyle;
+
+    public CellStyleRegistry(Workbook workbook)
+    {
+        this.workbook = workbook;
+    }
+
+    /**
+     * @MethodName: getWrapStyle
+     * @Description: 获取自动换行、垂直居中的样式，表头和数据列通用；第一次调用时创建
+     * @Return CellStyle
+     **/
+    public CellStyle getWrapStyle()
+    {
+        if (wrapStyle == null)
+        {
+            wrapStyle = workbook.createCellStyle();
+            wrapStyle.setWrapText(true);
+            wrapStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+        }
+        return wrapStyle;
+    }
+}
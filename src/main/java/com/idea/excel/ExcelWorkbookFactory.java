@@ -0,0 +1,84 @@
+package com.idea.excel;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @ClassName: ExcelWorkbookFactory
+ * @Description: Excel工作簿工厂，根据预估行数选择输出方式 <br>
+ *  预估行数低于阈值时使用XSSFWorkbook，全部内容保留在内存中；
+ *  达到阈值时使用SXSSFWorkbook流式输出，内存中只保留最近rowWindow行，其余行刷写到临时文件
+ * @Author: yuanbao
+ * @Date: 2025/3/21
+ **/
+public class ExcelWorkbookFactory
+{
+    private static final Logger log = LoggerFactory.getLogger(ExcelWorkbookFactory.class);
+
+    // 默认内存中保留的行数
+    public static final int DEFAULT_ROW_WINDOW = 500;
+
+    // 默认启用流式输出的行数阈值
+    public static final long DEFAULT_STREAMING_THRESHOLD = 50000;
+
+    private final int rowWindow;
+
+    private final boolean compressTempFiles;
+
+    private final long streamingThreshold;
+
+    public ExcelWorkbookFactory()
+    {
+        this(DEFAULT_ROW_WINDOW, true, DEFAULT_STREAMING_THRESHOLD);
+    }
+
+    /**
+     * @param rowWindow 流式输出时内存中保留的行数
+     * @param compressTempFiles 流式输出的临时文件是否gzip压缩
+     * @param streamingThreshold 预估行数达到该值时使用流式输出，为0时总是流式输出
+     */
+    public ExcelWorkbookFactory(int rowWindow, boolean compressTempFiles, long streamingThreshold)
+    {
+        if (rowWindow < 1)
+        {
+            throw new IllegalArgumentException("rowWindow必须大于0: " + rowWindow);
+        }
+        this.rowWindow = rowWindow;
+        this.compressTempFiles = compressTempFiles;
+        this.streamingThreshold = streamingThreshold;
+    }
+
+    /**
+     * @MethodName: create
+     * @Description: 创建工作簿
+     * @param expectedRows 预估的总行数
+     * @Return Workbook
+     **/
+    public Workbook create(long expectedRows)
+    {
+        if (expectedRows >= streamingThreshold)
+        {
+            log.info("预估行数" + expectedRows + "达到阈值" + streamingThreshold + "，使用流式输出，rowWindow=" + rowWindow);
+            SXSSFWorkbook workbook = new SXSSFWorkbook(new XSSFWorkbook(), rowWindow, compressTempFiles);
+            return workbook;
+        }
+        return new XSSFWorkbook();
+    }
+
+    /**
+     * @MethodName: dispose
+     * @Description: 释放工作簿，流式工作簿需要额外删除临时文件
+     * @param workbook
+     * @Return void
+     **/
+    public static void dispose(Workbook workbook)
+    {
+        if (workbook instanceof SXSSFWorkbook)
+        {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.idea.export;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * @ClassName: ExportJob
+ * @Description: 一次异步导出任务的状态 <br>
+ *  getter用于序列化为接口返回的JSON；结果文件路径和Future只在服务内部使用
+ * @Author: yuanbao
+ * @Date: 2025/4/11
+ **/
+public class ExportJob
+{
+    public enum Status
+    {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        boolean isFinished()
+        {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+
+    private final ExportProgress progress = new ExportProgress();
+
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    private volatile Path outputFile;
+
+    private volatile Future<?> future;
+
+    ExportJob(String id)
+    {
+        this.id = id;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public long getTotalRows()
+    {
+        return progress.getTotalRows();
+    }
+
+    public long getRowsRead()
+    {
+        return progress.getRowsRead();
+    }
+
+    public long getRowsTransformed()
+    {
+        return progress.getRowsTransformed();
+    }
+
+    public long getRowsWritten()
+    {
+        return progress.getRowsWritten();
+    }
+
+    /**
+     * 各阶段的累计耗时（毫秒）：count、query、transform、write、finish等
+     */
+    public Map<String, Long> getStages()
+    {
+        return progress.getStageMillis();
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public Instant getStartedAt()
+    {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt()
+    {
+        return finishedAt;
+    }
+
+    public String getError()
+    {
+        return error;
+    }
+
+    /**
+     * 结果文件名，未完成时为null
+     */
+    public String getFileName()
+    {
+        Path file = outputFile;
+        return file == null ? null : file.getFileName().toString();
+    }
+
+    @JsonIgnore
+    public ExportProgress getProgress()
+    {
+        return progress;
+    }
+
+    @JsonIgnore
+    public Path getOutputFile()
+    {
+        return outputFile;
+    }
+
+    @JsonIgnore
+    public boolean isFinished()
+    {
+        return status.isFinished();
+    }
+
+    void setFuture(Future<?> future)
+    {
+        this.future = future;
+    }
+
+    Future<?> getFuture()
+    {
+        return future;
+    }
+
+    synchronized boolean markRunning()
+    {
+        if (status != Status.QUEUED)
+        {
+            return false; // 排队期间已取消
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void markSucceeded(Path outputFile)
+    {
+        this.outputFile = outputFile;
+        finish(Status.SUCCEEDED);
+    }
+
+    synchronized void markFailed(String error)
+    {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    synchronized void markCancelled()
+    {
+        finish(Status.CANCELLED);
+    }
+
+    private void finish(Status status)
+    {
+        if (!this.status.isFinished())
+        {
+            this.status = status;
+            this.finishedAt = Instant.now();
+        }
+    }
+}
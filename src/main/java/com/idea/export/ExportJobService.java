@@ -0,0 +1,259 @@
+package com.idea.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * @ClassName: ExportJobService
+ * @Description: 异步导出任务管理 <br>
+ *  导出在专用的线程池中执行，与Web请求线程分离；线程数和排队数有上限，超出时拒绝新任务。
+ *  每个任务输出到各自的目录，只保留最近的若干个已完成任务及其文件
+ * @Author: yuanbao
+ * @Date: 2025/4/11
+ **/
+@Service
+public class ExportJobService
+{
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    @Autowired
+    private ExportResultCache exportResultCache;
+
+    // 同时执行的导出数
+    @Value("${export.jobs.threads:1}")
+    private int threads = 1;
+
+    // 等待执行的导出数上限
+    @Value("${export.jobs.queue-capacity:10}")
+    private int queueCapacity = 10;
+
+    // 保留的已完成任务数，超出时删除最早的任务及其文件
+    @Value("${export.jobs.max-retained:20}")
+    private int maxRetained = 20;
+
+    // 任务输出目录，每个任务一个子目录
+    @Value("${export.jobs.dir:input/jobs}")
+    private String jobsDir = "input/jobs";
+
+    // 按创建顺序排列
+    private final Map<String, ExportJob> jobs = new LinkedHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "export-job-" + index.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @MethodName: submit
+     * @Description: 提交一个导出任务，立即返回
+     * @Return ExportJob
+     * @throws RejectedExecutionException 排队的任务已满
+     **/
+    public ExportJob submit()
+    {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString().replace("-", ""));
+        synchronized (jobs)
+        {
+            job.setFuture(executor.submit(() -> run(job)));
+            jobs.put(job.getId(), job);
+        }
+        log.info("导出任务已提交：" + job.getId());
+        return job;
+    }
+
+    /**
+     * @MethodName: submitIfIdle
+     * @Description: 已有排队或执行中的任务时返回最近的一个，否则提交新任务；用于重复请求最新结果时不重复排队
+     * @Return ExportJob
+     * @throws RejectedExecutionException 排队的任务已满
+     **/
+    public ExportJob submitIfIdle()
+    {
+        synchronized (jobs)
+        {
+            ExportJob pending = null;
+            for (ExportJob job : jobs.values())
+            {
+                if (!job.isFinished())
+                {
+                    pending = job;
+                }
+            }
+            return pending != null ? pending : submit();
+        }
+    }
+
+    /**
+     * @MethodName: get
+     * @Description: 查询任务
+     * @param id 任务id
+     * @Return ExportJob 不存在时返回null
+     **/
+    public ExportJob get(String id)
+    {
+        synchronized (jobs)
+        {
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * @MethodName: list
+     * @Description: 全部任务，按创建顺序排列
+     * @Return List<ExportJob>
+     **/
+    public List<ExportJob> list()
+    {
+        synchronized (jobs)
+        {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * @MethodName: cancel
+     * @Description: 取消任务：排队中的直接取消，执行中的中断导出，已完成的不受影响
+     * @param id 任务id
+     * @Return ExportJob 不存在时返回null
+     **/
+    public ExportJob cancel(String id)
+    {
+        ExportJob job = get(id);
+        if (job != null && !job.isFinished())
+        {
+            job.getProgress().cancel();
+            job.markCancelled();
+            job.getFuture().cancel(true);
+            log.info("导出任务已取消：" + id);
+        }
+        return job;
+    }
+
+    /**
+     * 执行导出
+     */
+    private void run(ExportJob job)
+    {
+        if (!job.markRunning())
+        {
+            return;
+        }
+        try
+        {
+            // 数据未变化时直接使用缓存的结果
+            Path outputFile = exportResultCache.export(Paths.get(jobsDir, job.getId()), job.getProgress());
+            job.markSucceeded(outputFile);
+            log.info("导出任务完成：" + job.getId());
+        } catch (Exception e)
+        {
+            if (job.getProgress().isCancelled() || isInterruption(e))
+            {
+                job.markCancelled();
+            } else
+            {
+                log.error("导出任务失败：" + job.getId(), e);
+                job.markFailed(e.toString());
+            }
+        } finally
+        {
+            evictFinishedJobs();
+        }
+    }
+
+    private static boolean isInterruption(Throwable e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof InterruptedIOException || cause instanceof InterruptedException)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 已完成的任务超过保留数时，删除最早的任务及其输出目录
+     */
+    private void evictFinishedJobs()
+    {
+        List<ExportJob> evicted = new ArrayList<>();
+        synchronized (jobs)
+        {
+            long finished = jobs.values().stream().filter(ExportJob::isFinished).count();
+            Iterator<ExportJob> iterator = jobs.values().iterator();
+            while (finished > maxRetained && iterator.hasNext())
+            {
+                ExportJob job = iterator.next();
+                if (job.isFinished())
+                {
+                    iterator.remove();
+                    evicted.add(job);
+                    finished--;
+                }
+            }
+        }
+        for (ExportJob job : evicted)
+        {
+            deleteDirectory(Paths.get(jobsDir, job.getId()));
+        }
+    }
+
+    private static void deleteDirectory(Path dir)
+    {
+        if (!Files.exists(dir))
+        {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try
+                {
+                    Files.deleteIfExists(path);
+                } catch (IOException e)
+                {
+                    log.warn("删除导出文件失败：" + path, e);
+                }
+            });
+        } catch (IOException e)
+        {
+            log.warn("删除导出目录失败：" + dir, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.idea.export;
+
+import com.idea.metrics.StageTimings;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName: ExportProgress
+ * @Description: 导出进度：总行数，已读取、已转换、已写出的行数，各阶段耗时，以及取消标记 <br>
+ *  由导出的各个阶段在各自的线程中更新，可在任意线程中读取。
+ *  合并到其他调用正在进行的导出时，通过follow读取该导出的进度
+ * @Author: yuanbao
+ * @Date: 2025/4/11
+ **/
+public class ExportProgress
+{
+    private volatile long totalRows = -1;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong rowsTransformed = new AtomicLong();
+
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private final StageTimings stages = new StageTimings();
+
+    private volatile boolean cancelled;
+
+    // 合并到的导出的进度，为null时使用自身的计数
+    private volatile ExportProgress source;
+
+    /**
+     * 之后的读取改为返回另一个导出的进度
+     */
+    public void follow(ExportProgress source)
+    {
+        this.source = source;
+    }
+
+    public void setTotalRows(long totalRows)
+    {
+        this.totalRows = totalRows;
+    }
+
+    public void rowRead()
+    {
+        rowsRead.incrementAndGet();
+    }
+
+    public void rowTransformed()
+    {
+        rowsTransformed.incrementAndGet();
+    }
+
+    public void rowWritten()
+    {
+        rowsWritten.incrementAndGet();
+    }
+
+    /**
+     * 总行数，全部读取完成前为-1
+     */
+    public long getTotalRows()
+    {
+        ExportProgress followed = source;
+        return followed != null ? followed.getTotalRows() : totalRows;
+    }
+
+    public long getRowsRead()
+    {
+        ExportProgress followed = source;
+        return followed != null ? followed.getRowsRead() : rowsRead.get();
+    }
+
+    public long getRowsTransformed()
+    {
+        ExportProgress followed = source;
+        return followed != null ? followed.getRowsTransformed() : rowsTransformed.get();
+    }
+
+    public long getRowsWritten()
+    {
+        ExportProgress followed = source;
+        return followed != null ? followed.getRowsWritten() : rowsWritten.get();
+    }
+
+    /**
+     * 本次导出的各阶段耗时，由导出过程累加
+     */
+    public StageTimings stages()
+    {
+        return stages;
+    }
+
+    /**
+     * 各阶段的累计耗时（毫秒）
+     */
+    public Map<String, Long> getStageMillis()
+    {
+        ExportProgress followed = source;
+        return followed != null ? followed.getStageMillis() : stages.toMillis();
+    }
+
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * 已取消时抛出异常，中止导出
+     */
+    public void checkCancelled() throws InterruptedIOException
+    {
+        if (cancelled)
+        {
+            throw new InterruptedIOException("导出已取消");
+        }
+    }
+}
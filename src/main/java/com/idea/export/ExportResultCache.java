@@ -0,0 +1,529 @@
+package com.idea.export;
+
+import com.idea.DatasourceAnalyzer;
+import com.idea.report.ReportSinks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * @ClassName: ExportResultCache
+ * @Description: 导出结果缓存 <br>
+ *  以动态表格配置的数据指纹为键保存已生成的文件，指纹不变时直接返回该文件，不再查询、转换和写出；
+ *  指纹变化时重新导出，同一指纹的并发未命中只导出一次。条目超过存活时间后失效，总大小超出上限时按最近最少使用淘汰；
+ *  被淘汰时仍在使用的文件在最后一个使用方释放后才删除。指纹同时作为下载的弱ETag。
+ *  条目只记录在内存中，启动时清除上次运行留下的缓存目录
+ * @Author: yuanbao
+ * @Date: 2025/4/14
+ **/
+@Service
+public class ExportResultCache
+{
+    private static final Logger log = LoggerFactory.getLogger(ExportResultCache.class);
+
+    @Autowired
+    private DatasourceAnalyzer datasourceAnalyzer;
+
+    // 是否启用缓存，关闭时每次都重新导出
+    @Value("${export.cache.enabled:true}")
+    private boolean enabled = true;
+
+    // 缓存文件目录，每个条目一个子目录
+    @Value("${export.cache.dir:input/cache}")
+    private String cacheDir = "input/cache";
+
+    // 条目的存活时间，超过后即使指纹不变也重新导出
+    @Value("${export.cache.ttl:1h}")
+    private Duration ttl = Duration.ofHours(1);
+
+    // 缓存文件的总大小上限
+    @Value("${export.cache.max-size:512MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(512);
+
+    // 缓存条目的目录名：指纹（MD5十六进制）-随机后缀
+    private static final String ENTRY_DIR_PATTERN = "[0-9a-f]{32}-.+";
+
+    // 按访问顺序排列，最早的为最近最少使用
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 正在生成的结果，以指纹为键；同一指纹的并发未命中合并为一次导出
+    private final ConcurrentMap<String, Loading> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 一个已缓存的导出结果
+     */
+    public static final class Entry
+    {
+        private final String fingerprint;
+
+        private final Path file;
+
+        private final long size;
+
+        private final Instant createdAt = Instant.now();
+
+        private final ExportProgress progress;
+
+        // 以下字段由缓存加锁访问：正在使用的调用数、是否已从表中淘汰、文件是否已删除
+        private int users;
+
+        private boolean evicted;
+
+        private boolean deleted;
+
+        Entry(String fingerprint, Path file, ExportProgress progress) throws IOException
+        {
+            this.fingerprint = fingerprint;
+            this.file = file;
+            this.size = Files.size(file);
+            this.progress = progress;
+        }
+
+        public String getFingerprint()
+        {
+            return fingerprint;
+        }
+
+        /**
+         * 下载使用的弱ETag
+         */
+        public String getETag()
+        {
+            return etag(fingerprint);
+        }
+
+        public Path getFile()
+        {
+            return file;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        /**
+         * 生成该文件时的导出进度（已完成）
+         */
+        public ExportProgress getProgress()
+        {
+            return progress;
+        }
+    }
+
+    /**
+     * 一次正在进行的生成
+     */
+    private static final class Loading
+    {
+        private final CompletableFuture<Entry> result = new CompletableFuture<>();
+
+        private final ExportProgress progress;
+
+        Loading(ExportProgress progress)
+        {
+            this.progress = progress;
+        }
+    }
+
+    /**
+     * 条目只记录在内存中，启动时删除上次运行留下的缓存目录，避免其成为无人管理的文件
+     */
+    @PostConstruct
+    public void init()
+    {
+        Path dir = Paths.get(cacheDir);
+        if (!Files.isDirectory(dir))
+        {
+            return;
+        }
+        int removed = 0;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir))
+        {
+            for (Path child : children)
+            {
+                if (Files.isDirectory(child) && child.getFileName().toString().matches(ENTRY_DIR_PATTERN))
+                {
+                    deleteDirectory(child);
+                    removed++;
+                }
+            }
+        } catch (IOException e)
+        {
+            log.warn("清除缓存目录失败：" + dir, e);
+        }
+        if (removed > 0)
+        {
+            log.info("已清除上次运行的导出结果缓存：" + removed + "个");
+        }
+    }
+
+    /**
+     * @MethodName: fingerprint
+     * @Description: 当前的数据指纹，用于在不读取文件的情况下判断客户端的缓存是否仍然有效
+     * @Return String
+     **/
+    public String fingerprint()
+    {
+        return datasourceAnalyzer.fingerprint();
+    }
+
+    /**
+     * @MethodName: etag
+     * @Description: 数据指纹对应的弱ETag。指纹相同时数据和输出格式相同，但文件并非逐字节一致（如xlsx中的生成时间）
+     * @param fingerprint 数据指纹
+     * @Return String
+     **/
+    public static String etag(String fingerprint)
+    {
+        return "W/\"" + fingerprint + "\"";
+    }
+
+    /**
+     * @MethodName: matches
+     * @Description: 请求头If-None-Match是否与数据指纹一致（弱比较，忽略W/前缀）
+     * @param ifNoneMatch 请求头If-None-Match，可为空
+     * @param fingerprint 数据指纹
+     * @Return boolean
+     **/
+    public static boolean matches(String ifNoneMatch, String fingerprint)
+    {
+        if (ifNoneMatch == null)
+        {
+            return false;
+        }
+        String opaqueTag = "\"" + fingerprint + "\"";
+        for (String tag : ifNoneMatch.split(","))
+        {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @MethodName: peek
+     * @Description: 获取已缓存的导出结果，不触发导出。返回的条目在使用完后需调用release释放
+     * @param fingerprint 当前的数据指纹
+     * @Return Entry 未缓存或已过期时返回null
+     **/
+    public Entry peek(String fingerprint)
+    {
+        return enabled ? lookup(fingerprint) : null;
+    }
+
+    /**
+     * @MethodName: get
+     * @Description: 获取数据指纹对应的导出结果：已缓存且未过期时直接返回缓存的文件，否则重新导出并缓存；
+     *  同一指纹正在导出时等待其完成，发起方被取消时重新发起。返回的条目在使用完后需调用release释放
+     * @param fingerprint 当前的数据指纹
+     * @param progress 导出进度；命中缓存时改为跟随生成该文件时的进度
+     * @Return Entry
+     **/
+    public Entry get(String fingerprint, ExportProgress progress) throws IOException
+    {
+        while (true)
+        {
+            Entry cached = lookup(fingerprint);
+            if (cached != null)
+            {
+                log.info("导出结果命中缓存：" + fingerprint);
+                progress.follow(cached.getProgress());
+                return cached;
+            }
+
+            Loading mine = new Loading(progress);
+            Loading running = loading.putIfAbsent(fingerprint, mine);
+            if (running == null)
+            {
+                try
+                {
+                    Entry entry = load(fingerprint, progress);
+                    mine.result.complete(entry);
+                    return entry;
+                } catch (Throwable e)
+                {
+                    mine.result.completeExceptionally(e);
+                    throw e;
+                } finally
+                {
+                    loading.remove(fingerprint, mine);
+                }
+            }
+
+            // 合并到同一指纹正在进行的导出
+            progress.follow(running.progress);
+            Entry entry;
+            try
+            {
+                entry = await(running.result);
+            } catch (IOException | RuntimeException e)
+            {
+                if (Thread.currentThread().isInterrupted() || progress.isCancelled() || !running.progress.isCancelled())
+                {
+                    throw e; // 本次调用被取消，或导出本身失败
+                }
+                continue; // 发起方被取消，重新发起
+            }
+            if (acquire(entry))
+            {
+                return entry;
+            }
+            // 文件已被淘汰并删除，重新查找
+        }
+    }
+
+    /**
+     * @MethodName: release
+     * @Description: 释放get、peek返回的条目；条目已被淘汰且不再使用时删除其文件
+     * @param entry 条目
+     * @Return void
+     **/
+    public void release(Entry entry)
+    {
+        boolean delete;
+        synchronized (this)
+        {
+            entry.users--;
+            delete = entry.evicted && entry.users == 0 && !entry.deleted;
+            if (delete)
+            {
+                entry.deleted = true;
+            }
+        }
+        if (delete)
+        {
+            delete(entry);
+        }
+    }
+
+    /**
+     * 导出并加入缓存，返回的条目已被调用方占用
+     */
+    private Entry load(String fingerprint, ExportProgress progress) throws IOException
+    {
+        // 每次生成使用单独的目录，淘汰旧条目时不会误删新文件
+        Path dir = Files.createTempDirectory(Files.createDirectories(Paths.get(cacheDir)), fingerprint + "-");
+        Path file;
+        try
+        {
+            file = datasourceAnalyzer.export(dir, progress);
+        } catch (IOException | RuntimeException e)
+        {
+            Files.deleteIfExists(dir);
+            throw e;
+        }
+        Entry entry = new Entry(fingerprint, file, progress);
+        put(entry);
+        return entry;
+    }
+
+    /**
+     * @MethodName: export
+     * @Description: 获取当前数据对应的导出结果，并发布到指定目录
+     * @param outputDir 输出目录，不存在时自动创建
+     * @param progress 导出进度
+     * @Return Path 输出目录中的文件
+     **/
+    public Path export(Path outputDir, ExportProgress progress) throws IOException
+    {
+        if (!enabled)
+        {
+            return datasourceAnalyzer.export(outputDir, progress);
+        }
+        Entry entry = get(fingerprint(), progress);
+        try
+        {
+            Path outputFile = Files.createDirectories(outputDir).resolve(entry.getFile().getFileName());
+            ReportSinks.publishCopy(entry.getFile(), outputFile);
+            return outputFile;
+        } finally
+        {
+            release(entry);
+        }
+    }
+
+    /**
+     * 查找未过期且文件仍存在的条目，找到时占用该条目
+     */
+    private Entry lookup(String fingerprint)
+    {
+        List<Entry> deletable = new ArrayList<>();
+        Entry entry;
+        synchronized (this)
+        {
+            evictExpired(deletable);
+            entry = entries.get(fingerprint);
+            if (entry != null && !Files.exists(entry.getFile()))
+            {
+                entries.remove(fingerprint);
+                evict(entry, deletable);
+                entry = null;
+            }
+            if (entry != null)
+            {
+                entry.users++;
+            }
+        }
+        deletable.forEach(ExportResultCache::delete);
+        return entry;
+    }
+
+    /**
+     * 占用已生成的条目，其文件已被删除时返回false
+     */
+    private synchronized boolean acquire(Entry entry)
+    {
+        if (entry.deleted)
+        {
+            return false;
+        }
+        entry.users++;
+        return true;
+    }
+
+    /**
+     * 加入新条目并由调用方占用，淘汰过期的和超出大小上限的条目（新条目本身保留，至少可以服务本次请求）。
+     *  被替换的旧条目与新条目为同一文件时不删除
+     */
+    private void put(Entry entry)
+    {
+        List<Entry> deletable = new ArrayList<>();
+        synchronized (this)
+        {
+            entry.users++;
+            evictExpired(deletable);
+            Entry previous = entries.put(entry.getFingerprint(), entry);
+            if (previous != null && previous != entry && !previous.getFile().equals(entry.getFile()))
+            {
+                evict(previous, deletable);
+            }
+            long total = entries.values().stream().mapToLong(e -> e.size).sum();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (total > maxSize.toBytes() && iterator.hasNext())
+            {
+                Entry eldest = iterator.next();
+                if (eldest != entry)
+                {
+                    iterator.remove();
+                    evict(eldest, deletable);
+                    total -= eldest.size;
+                }
+            }
+        }
+        deletable.forEach(ExportResultCache::delete);
+    }
+
+    /**
+     * 从表中移除过期条目（文件由调用方在锁外删除）
+     */
+    private void evictExpired(List<Entry> deletable)
+    {
+        // 未启用缓存时条目只用于服务生成它的请求，之后即被淘汰
+        Instant deadline = enabled ? Instant.now().minus(ttl) : Instant.MAX;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            if (entry.createdAt.isBefore(deadline))
+            {
+                iterator.remove();
+                evict(entry, deletable);
+            }
+        }
+    }
+
+    /**
+     * 标记条目已淘汰；不再使用时加入待删除列表，否则由最后一个使用方在release时删除
+     */
+    private void evict(Entry entry, List<Entry> deletable)
+    {
+        entry.evicted = true;
+        if (entry.users == 0 && !entry.deleted)
+        {
+            entry.deleted = true;
+            deletable.add(entry);
+        }
+    }
+
+    /**
+     * 等待另一个调用的导出结果，异常原样抛出
+     */
+    private static Entry await(CompletableFuture<Entry> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待导出结果被中断");
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 删除条目的文件和目录；已发布到任务目录的文件是独立的链接或副本，不受影响
+     */
+    private static void delete(Entry entry)
+    {
+        try
+        {
+            Files.deleteIfExists(entry.getFile());
+            Files.deleteIfExists(entry.getFile().getParent());
+            log.info("导出结果缓存已淘汰：" + entry.getFingerprint());
+        } catch (IOException e)
+        {
+            log.warn("删除缓存文件失败：" + entry.getFile(), e);
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
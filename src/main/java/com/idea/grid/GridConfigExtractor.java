@@ -0,0 +1,650 @@
+package com.idea.grid;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @ClassName: GridConfigExtractor
+ * @Description: 动态表格配置（data_source、grid、options）的单遍提取 <br>
+ *  每个字段只用JsonParser顺序读取一次，只取用bean、method、params、columns[].prop/refEntity/refName/pass、
+ *  defaultSort和extraParamFields.queryString，其余内容原样复制，结果直接由JsonGenerator写出，不构建中间对象树。
+ *  输出与原先fastjson的处理结果一致：对象中值为null的字段省略；合并的字段已存在时原位替换，否则追加在末尾。
+ *  无状态，线程安全
+ * @Author: yuanbao
+ * @Date: 2025/4/7
+ **/
+public class GridConfigExtractor
+{
+    // 与fastjson一样容忍单引号和不带引号的字段名
+    private static final JsonFactory factory = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .build();
+
+    /**
+     * @MethodName: extractGridInfo
+     * @Description: 提取grid中的columns和defaultSort信息。columns只保留未设置pass的列，prop改为name，
+     *  refEntity和refName有则保留；defaultSort中的prop、order分别作为data_source的sidx、sord
+     * @param grid grid配置，为空时返回空的GridInfo
+     * @Return GridInfo
+     **/
+    public GridInfo extractGridInfo(String grid)
+    {
+        if (grid == null || grid.isEmpty())
+        {
+            return GridInfo.EMPTY;
+        }
+        try (JsonParser parser = factory.createParser(grid))
+        {
+            expectObject(parser, "grid");
+            String columns = null;
+            String defaultSort = null;
+            Map<String, String> sortFields = Collections.emptyMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("columns".equals(field))
+                {
+                    columns = readColumns(parser, token);
+                } else if ("defaultSort".equals(field))
+                {
+                    sortFields = new LinkedHashMap<>();
+                    defaultSort = readDefaultSort(parser, token, sortFields);
+                } else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            if (columns == null && defaultSort == null)
+            {
+                return GridInfo.EMPTY;
+            }
+            StringBuilder json = new StringBuilder();
+            Map<String, String> fields = new LinkedHashMap<>();
+            json.append('{');
+            if (columns != null)
+            {
+                json.append("\"columns\":").append(columns);
+                fields.put("columns", columns);
+            }
+            if (defaultSort != null)
+            {
+                json.append(columns != null ? "," : "").append("\"defaultSort\":").append(defaultSort);
+                fields.putAll(sortFields);
+            }
+            json.append('}');
+            return new GridInfo(json.toString(), fields);
+        } catch (IOException e)
+        {
+            throw new IllegalArgumentException("grid配置解析失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @MethodName: extractQueryString
+     * @Description: 提取options中extraParamFields（字符串形式的JSON）里的queryString
+     * @param options options配置
+     * @Return Map<String,String> 需要合并到data_source中的queryString字段，未配置时为空
+     **/
+    public Map<String, String> extractQueryString(String options)
+    {
+        if (options == null || options.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+        try (JsonParser parser = factory.createParser(options))
+        {
+            expectObject(parser, "options");
+            Map<String, String> fields = Collections.emptyMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("extraParamFields".equals(field) && token == JsonToken.VALUE_STRING && parser.getTextLength() > 0)
+                {
+                    try (JsonParser extraParser = factory.createParser(parser.getText()))
+                    {
+                        fields = findQueryString(extraParser);
+                    }
+                } else if ("extraParamFields".equals(field) && token == JsonToken.START_OBJECT)
+                {
+                    fields = findQueryString(parser);
+                } else
+                {
+                    parser.skipChildren();
+                }
+            }
+            return fields;
+        } catch (IOException e)
+        {
+            throw new IllegalArgumentException("options配置解析失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @MethodName: extract
+     * @Description: 处理data_source：bean、method拼接为url（appendParams时params拼接为查询参数），
+     *  其余字段原样复制，并合并grid和options中提取出的字段
+     * @param dataSource data_source配置，不能为空
+     * @param gridInfo grid中提取出的信息
+     * @param extraFields 额外合并的字段（如queryString），在grid的字段之前合并
+     * @param appendParams 是否将params拼接到url中
+     * @Return Result
+     **/
+    public Result extract(String dataSource, GridInfo gridInfo, Map<String, String> extraFields, boolean appendParams)
+    {
+        Map<String, String> fields = gridInfo.getFields();
+        if (!extraFields.isEmpty())
+        {
+            fields = new LinkedHashMap<>(extraFields);
+            fields.putAll(gridInfo.getFields());
+        }
+
+        StringWriter out = new StringWriter(dataSource.length() + 64);
+        try (JsonParser parser = factory.createParser(dataSource);
+             JsonGenerator gen = factory.createGenerator(out))
+        {
+            expectObject(parser, "data_source");
+            boolean hasBean = false;
+            boolean hasMethod = false;
+            String bean = null;
+            String method = null;
+            StringBuilder params = null;
+            Set<String> merged = new HashSet<>();
+
+            gen.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (fields.containsKey(field))
+                {
+                    // 合并的字段原位替换
+                    parser.skipChildren();
+                    if (merged.add(field))
+                    {
+                        writeRawField(gen, field, fields.get(field));
+                    }
+                } else if ("bean".equals(field))
+                {
+                    hasBean = true;
+                    bean = copyField(parser, gen, field);
+                } else if ("method".equals(field))
+                {
+                    hasMethod = true;
+                    method = copyField(parser, gen, field);
+                } else if ("params".equals(field) && appendParams && token != JsonToken.VALUE_NULL)
+                {
+                    params = new StringBuilder();
+                    copyParams(parser, gen, params);
+                } else if (token != JsonToken.VALUE_NULL)
+                {
+                    gen.writeFieldName(field);
+                    copyValue(parser, gen);
+                }
+            }
+            for (Map.Entry<String, String> entry : fields.entrySet())
+            {
+                if (!merged.contains(entry.getKey()))
+                {
+                    writeRawField(gen, entry.getKey(), entry.getValue());
+                }
+            }
+            gen.writeEndObject();
+            gen.flush();
+
+            String url = null;
+            if (hasBean && hasMethod)
+            {
+                url = bean + "!" + method + ".m";
+                // 如果包含了param传参，则拼接到url后面
+                if (params != null && params.length() > 0)
+                {
+                    url += "?" + params;
+                }
+            }
+            return new Result(url, out.toString(), gridInfo.getJson());
+        } catch (IOException e)
+        {
+            throw new IllegalArgumentException("data_source配置解析失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取columns，当前token为数组或字符串形式的数组
+     *
+     * @return 处理后的columns数组（JSON文本），未配置时返回null
+     */
+    private String readColumns(JsonParser parser, JsonToken token) throws IOException
+    {
+        if (token == JsonToken.VALUE_STRING)
+        {
+            if (parser.getTextLength() == 0)
+            {
+                return null;
+            }
+            try (JsonParser nested = factory.createParser(parser.getText()))
+            {
+                return nested.nextToken() == JsonToken.START_ARRAY ? readColumns(nested, JsonToken.START_ARRAY) : null;
+            }
+        }
+        if (token != JsonToken.START_ARRAY)
+        {
+            parser.skipChildren();
+            return null;
+        }
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = factory.createGenerator(out))
+        {
+            gen.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+            {
+                if (parser.currentToken() != JsonToken.START_OBJECT)
+                {
+                    parser.skipChildren();
+                    continue;
+                }
+                String prop = null;
+                String refEntity = null;
+                String refName = null;
+                boolean pass = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME)
+                {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field)
+                    {
+                        case "prop":
+                            prop = readText(parser);
+                            break;
+                        case "refEntity":
+                            refEntity = readText(parser);
+                            break;
+                        case "refName":
+                            refName = readText(parser);
+                            break;
+                        case "pass":
+                            pass = readBoolean(parser);
+                            break;
+                        default:
+                            parser.skipChildren();
+                            break;
+                    }
+                }
+                // 字段设置为忽略（pass）时不添加进columns中
+                if (pass)
+                {
+                    continue;
+                }
+                gen.writeStartObject();
+                if (prop != null)
+                {
+                    gen.writeStringField("name", prop); // prop 改为name
+                }
+                // refEntity和refName 不一定有，有则加入
+                if (refEntity != null && !refEntity.isEmpty())
+                {
+                    gen.writeStringField("refEntity", refEntity);
+                }
+                if (refName != null && !refName.isEmpty())
+                {
+                    gen.writeStringField("refName", refName);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        return out.toString();
+    }
+
+    /**
+     * 读取defaultSort，当前token为对象或字符串形式的对象；其中的prop、order转换为sidx、sord放入sortFields
+     *
+     * @return defaultSort（JSON文本），未配置时返回null
+     */
+    private String readDefaultSort(JsonParser parser, JsonToken token, Map<String, String> sortFields) throws IOException
+    {
+        if (token == JsonToken.VALUE_STRING)
+        {
+            if (parser.getTextLength() == 0)
+            {
+                return null;
+            }
+            try (JsonParser nested = factory.createParser(parser.getText()))
+            {
+                return nested.nextToken() == JsonToken.START_OBJECT ? readDefaultSort(nested, JsonToken.START_OBJECT, sortFields) : null;
+            }
+        }
+        if (token != JsonToken.START_OBJECT)
+        {
+            parser.skipChildren();
+            return null;
+        }
+
+        StringWriter out = new StringWriter();
+        String sidx = null;
+        String sord = null;
+        boolean hasSidx = false;
+        boolean hasSord = false;
+        try (JsonGenerator gen = factory.createGenerator(out))
+        {
+            gen.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("prop".equals(field))
+                {
+                    hasSidx = true;
+                    sidx = copyField(parser, gen, field); // 排序字段
+                } else if ("order".equals(field))
+                {
+                    hasSord = true;
+                    sord = copyField(parser, gen, field); // 排序方式
+                } else
+                {
+                    copyField(parser, gen, field);
+                }
+            }
+            gen.writeEndObject();
+        }
+        if (hasSidx)
+        {
+            sortFields.put("sidx", quote(sidx));
+        }
+        if (hasSord)
+        {
+            sortFields.put("sord", quote(sord));
+        }
+        return out.toString();
+    }
+
+    /**
+     * 在对象中查找queryString，当前token为START_OBJECT
+     */
+    private Map<String, String> findQueryString(JsonParser parser) throws IOException
+    {
+        if (parser.currentToken() == null && parser.nextToken() != JsonToken.START_OBJECT)
+        {
+            return Collections.emptyMap();
+        }
+        Map<String, String> fields = Collections.emptyMap();
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("queryString".equals(field))
+            {
+                // 将sql语句放入到data_source里
+                fields = Collections.singletonMap("queryString", quote(readText(parser)));
+            } else
+            {
+                parser.skipChildren();
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 复制params对象，同时拼接为url查询参数（key=value，以&分隔）
+     */
+    private void copyParams(JsonParser parser, JsonGenerator gen, StringBuilder params) throws IOException
+    {
+        if (parser.currentToken() == JsonToken.VALUE_STRING)
+        {
+            // 字符串形式的params原样输出，解析其内容拼接url
+            String text = parser.getText();
+            gen.writeStringField("params", text);
+            try (JsonParser nested = factory.createParser(text))
+            {
+                if (nested.nextToken() == JsonToken.START_OBJECT)
+                {
+                    appendParams(nested, null, params);
+                }
+            }
+            return;
+        }
+        gen.writeFieldName("params");
+        if (parser.currentToken() != JsonToken.START_OBJECT)
+        {
+            copyValue(parser, gen);
+            return;
+        }
+        gen.writeStartObject();
+        appendParams(parser, gen, params);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 遍历params对象的字段拼接查询参数，gen不为空时同时复制字段
+     */
+    private void appendParams(JsonParser parser, JsonGenerator gen, StringBuilder params) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            String value = gen == null ? readText(parser) : copyField(parser, gen, key);
+            if (params.length() > 0)
+            {
+                params.append('&');
+            }
+            params.append(key).append('=').append(value);
+        }
+    }
+
+    /**
+     * 复制一个字段（值为null时省略），并返回其文本值
+     *
+     * @return 字符串原值，数字、布尔为其文本，对象、数组为JSON文本，null返回null
+     */
+    private String copyField(JsonParser parser, JsonGenerator gen, String field) throws IOException
+    {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL)
+        {
+            return null;
+        }
+        gen.writeFieldName(field);
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)
+        {
+            String json = toJson(parser);
+            gen.writeRawValue(json);
+            return json;
+        }
+        String text = parser.getText();
+        copyValue(parser, gen);
+        return text;
+    }
+
+    /**
+     * 读取当前值的文本：字符串原值，数字、布尔为其文本，对象、数组为JSON文本，null返回null
+     */
+    private String readText(JsonParser parser) throws IOException
+    {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL)
+        {
+            return null;
+        }
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)
+        {
+            return toJson(parser);
+        }
+        return parser.getText();
+    }
+
+    /**
+     * 读取布尔值：true、数字1、字符串"true"或"1"视为true
+     */
+    private static boolean readBoolean(JsonParser parser) throws IOException
+    {
+        switch (parser.currentToken())
+        {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_NUMBER_INT:
+                return parser.getIntValue() == 1;
+            case VALUE_STRING:
+                String text = parser.getText();
+                return "true".equalsIgnoreCase(text) || "1".equals(text);
+            default:
+                parser.skipChildren();
+                return false;
+        }
+    }
+
+    /**
+     * 将当前的对象或数组转换为JSON文本
+     */
+    private String toJson(JsonParser parser) throws IOException
+    {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = factory.createGenerator(out))
+        {
+            copyValue(parser, gen);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 复制当前值，对象中值为null的字段省略，数字保持原文本
+     */
+    private static void copyValue(JsonParser parser, JsonGenerator gen) throws IOException
+    {
+        switch (parser.currentToken())
+        {
+            case START_OBJECT:
+                gen.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME)
+                {
+                    String field = parser.getCurrentName();
+                    if (parser.nextToken() != JsonToken.VALUE_NULL)
+                    {
+                        gen.writeFieldName(field);
+                        copyValue(parser, gen);
+                    }
+                }
+                gen.writeEndObject();
+                break;
+            case START_ARRAY:
+                gen.writeStartArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY)
+                {
+                    copyValue(parser, gen);
+                }
+                gen.writeEndArray();
+                break;
+            case VALUE_STRING:
+                gen.writeString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                gen.writeNumber(parser.getText());
+                break;
+            case VALUE_TRUE:
+                gen.writeBoolean(true);
+                break;
+            case VALUE_FALSE:
+                gen.writeBoolean(false);
+                break;
+            default:
+                gen.writeNull();
+                break;
+        }
+    }
+
+    /**
+     * 写入合并的字段，值为null时省略
+     */
+    private static void writeRawField(JsonGenerator gen, String field, String json) throws IOException
+    {
+        if (json != null)
+        {
+            gen.writeFieldName(field);
+            gen.writeRawValue(json);
+        }
+    }
+
+    /**
+     * 字符串转换为JSON字符串文本，null返回null
+     */
+    private static String quote(String value) throws IOException
+    {
+        if (value == null)
+        {
+            return null;
+        }
+        StringWriter out = new StringWriter(value.length() + 2);
+        try (JsonGenerator gen = factory.createGenerator(out))
+        {
+            gen.writeString(value);
+        }
+        return out.toString();
+    }
+
+    private static void expectObject(JsonParser parser, String name) throws IOException
+    {
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+        {
+            throw new IOException(name + "不是JSON对象");
+        }
+    }
+
+    /**
+     * 单行的处理结果
+     */
+    public static final class Result
+    {
+        private final String url;
+
+        private final String dataSource;
+
+        private final String grid;
+
+        Result(String url, String dataSource, String grid)
+        {
+            this.url = url;
+            this.dataSource = dataSource;
+            this.grid = grid;
+        }
+
+        /**
+         * 拼接出的url，data_source中没有bean或method时为null
+         */
+        public String getUrl()
+        {
+            return url;
+        }
+
+        /**
+         * 合并后的data_source（JSON文本）
+         */
+        public String getDataSource()
+        {
+            return dataSource;
+        }
+
+        /**
+         * 提取并处理后的grid（JSON文本）
+         */
+        public String getGrid()
+        {
+            return grid;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.idea.grid;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @ClassName: GridConfigMemo
+ * @Description: grid和options提取结果的LRU缓存 <br>
+ *  复制出的页面其grid、options配置往往完全相同，提取结果（GridInfo、queryString字段）只依赖原始文本且不可变，
+ *  因此按原始文本缓存，相同配置只解析一次。键为原始文本本身，哈希值相同的不同文本由equals比较全文区分，
+ *  不会返回错误的结果。两类结果分别缓存，各自最多maxEntries条，超出时淘汰最久未使用的；
+ *  maxEntries小于1时不缓存。解析失败的配置不缓存，每次重新抛出异常。线程安全
+ * @Author: yuanbao
+ * @Date: 2025/4/22
+ **/
+public class GridConfigMemo
+{
+    private final GridConfigExtractor extractor;
+
+    private final Cache<GridInfo> grids;
+
+    private final Cache<Map<String, String>> queryStrings;
+
+    public GridConfigMemo(GridConfigExtractor extractor, int maxEntries)
+    {
+        this.extractor = extractor;
+        this.grids = new Cache<>(maxEntries);
+        this.queryStrings = new Cache<>(maxEntries);
+    }
+
+    /**
+     * @MethodName: extractGridInfo
+     * @Description: 同GridConfigExtractor.extractGridInfo，相同的grid文本只提取一次
+     * @param grid grid配置
+     * @Return GridInfo
+     **/
+    public GridInfo extractGridInfo(String grid)
+    {
+        if (grid == null || grid.isEmpty())
+        {
+            return extractor.extractGridInfo(grid);
+        }
+        return grids.get(grid, extractor::extractGridInfo);
+    }
+
+    /**
+     * @MethodName: extractQueryString
+     * @Description: 同GridConfigExtractor.extractQueryString，相同的options文本只提取一次
+     * @param options options配置
+     * @Return Map<String,String>
+     **/
+    public Map<String, String> extractQueryString(String options)
+    {
+        if (options == null || options.isEmpty())
+        {
+            return extractor.extractQueryString(options);
+        }
+        return queryStrings.get(options, extractor::extractQueryString);
+    }
+
+    /**
+     * grid提取结果的缓存
+     */
+    public Cache<GridInfo> grids()
+    {
+        return grids;
+    }
+
+    /**
+     * options中queryString提取结果的缓存
+     */
+    public Cache<Map<String, String>> queryStrings()
+    {
+        return queryStrings;
+    }
+
+    /**
+     * 以原始文本为键的LRU缓存，记录命中和未命中次数
+     */
+    public static final class Cache<V>
+    {
+        private final int maxEntries;
+
+        private final Map<String, V> entries;
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private Cache(int maxEntries)
+        {
+            this.maxEntries = maxEntries;
+            this.entries = new LinkedHashMap<String, V>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+                {
+                    return size() > Cache.this.maxEntries;
+                }
+            };
+        }
+
+        private V get(String text, Function<String, V> extract)
+        {
+            if (maxEntries < 1)
+            {
+                return extract.apply(text);
+            }
+            V value;
+            synchronized (entries)
+            {
+                value = entries.get(text);
+            }
+            if (value != null)
+            {
+                hits.increment();
+                return value;
+            }
+            misses.increment();
+            // 在锁外提取，多个线程同时未命中时可能重复提取，结果相同
+            value = extract.apply(text);
+            synchronized (entries)
+            {
+                entries.put(text, value);
+            }
+            return value;
+        }
+
+        /**
+         * 命中次数
+         */
+        public long getHits()
+        {
+            return hits.sum();
+        }
+
+        /**
+         * 未命中（实际提取）的次数，不缓存时不计数
+         */
+        public long getMisses()
+        {
+            return misses.sum();
+        }
+
+        /**
+         * 当前缓存的条数
+         */
+        public int size()
+        {
+            synchronized (entries)
+            {
+                return entries.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.idea.grid;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @ClassName: GridInfo
+ * @Description: 从grid配置中提取出的信息 <br>
+ *  json为输出到Grid配置列的内容（columns、defaultSort）；
+ *  fields为需要合并到data_source中的字段（columns、sidx、sord），值为JSON文本，null表示JSON的null。
+ *  只依赖grid字符串本身，不可变，可在多行、多线程之间共享
+ * @Author: yuanbao
+ * @Date: 2025/4/7
+ **/
+public final class GridInfo
+{
+    static final GridInfo EMPTY = new GridInfo("{}", Collections.emptyMap());
+
+    private final String json;
+
+    private final Map<String, String> fields;
+
+    GridInfo(String json, Map<String, String> fields)
+    {
+        this.json = json;
+        this.fields = fields.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    /**
+     * 提取并处理后的grid（JSON文本）
+     */
+    public String getJson()
+    {
+        return json;
+    }
+
+    /**
+     * 需要合并到data_source中的字段，按合并顺序排列
+     */
+    public Map<String, String> getFields()
+    {
+        return fields;
+    }
+}
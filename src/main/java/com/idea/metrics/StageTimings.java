@@ -0,0 +1,97 @@
+package com.idea.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName: StageTimings
+ * @Description: 一次运行中各阶段的累计耗时 <br>
+ *  各阶段可在多个线程中并发累加（如并行转换），累加本身不加锁；
+ *  并行阶段的耗时为各线程耗时之和，因此各阶段之和可能大于运行的总耗时。
+ *  运行结束后通过publish将每个阶段的耗时记录到Micrometer计时器
+ * @Author: yuanbao
+ * @Date: 2025/4/16
+ **/
+public class StageTimings
+{
+    private final ConcurrentMap<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+    // 阶段首次出现的顺序
+    private final List<String> stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * @MethodName: record
+     * @Description: 累加阶段耗时
+     * @param stage 阶段名
+     * @param elapsedNanos 耗时（纳秒）
+     * @Return void
+     **/
+    public void record(String stage, long elapsedNanos)
+    {
+        LongAdder adder = nanos.get(stage);
+        if (adder == null)
+        {
+            adder = nanos.computeIfAbsent(stage, key -> {
+                stages.add(key);
+                return new LongAdder();
+            });
+        }
+        adder.add(elapsedNanos);
+    }
+
+    /**
+     * @MethodName: since
+     * @Description: 累加从startNanos（System.nanoTime）到现在的耗时
+     * @param stage 阶段名
+     * @param startNanos 开始时间
+     * @Return void
+     **/
+    public void since(String stage, long startNanos)
+    {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @MethodName: toMillis
+     * @Description: 各阶段的累计耗时（毫秒），按阶段首次出现的顺序排列
+     * @Return Map<String,Long>
+     **/
+    public Map<String, Long> toMillis()
+    {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        for (String stage : stages)
+        {
+            millis.put(stage, TimeUnit.NANOSECONDS.toMillis(nanos.get(stage).sum()));
+        }
+        return millis;
+    }
+
+    /**
+     * @MethodName: publish
+     * @Description: 将各阶段的累计耗时记录到计时器，每个阶段记录一次，计时器以stage标签区分
+     * @param registry 指标注册表
+     * @param name 计时器名称
+     * @param tags 其他标签（键值交替）
+     * @Return void
+     **/
+    public void publish(MeterRegistry registry, String name, String... tags)
+    {
+        for (String stage : stages)
+        {
+            Timer.builder(name)
+                    .tags(tags)
+                    .tag("stage", stage)
+                    .register(registry)
+                    .record(nanos.get(stage).sum(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
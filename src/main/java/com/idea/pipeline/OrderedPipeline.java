@@ -0,0 +1,244 @@
+package com.idea.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @ClassName: OrderedPipeline
+ * @Description: 有序的并行转换流水线：读取 → 转换 → 写出 <br>
+ *  读取线程调用submit提交数据，转换在工作线程池中并行执行，写出在单独的写线程中按提交顺序进行。
+ *  各阶段之间以有界队列连接：队列满时submit阻塞（背压），同时处理中的数据不超过队列容量，内存占用有上限。
+ *  任一阶段出错后，后续的submit和finish抛出该异常
+ * @Author: yuanbao
+ * @Date: 2025/4/9
+ **/
+public class OrderedPipeline<T, R> implements Closeable
+{
+    // 队列结束标记
+    private static final Future<Object> END = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService workers;
+
+    private final Function<T, R> transform;
+
+    // 按提交顺序排列的转换结果
+    private final BlockingQueue<Future<?>> queue;
+
+    private final ExecutorService writerThread;
+
+    private final Future<Long> written;
+
+    private volatile Throwable failure;
+
+    /**
+     * @param name 流水线名称，用于写线程的线程名
+     * @param workers 转换使用的线程池，由调用方管理，可在多个流水线之间共享
+     * @param capacity 队列容量，即同时处理中的最大数据量
+     * @param transform 转换，在工作线程中执行，需要线程安全
+     * @param writer 写出，只在写线程中按提交顺序调用
+     */
+    public OrderedPipeline(String name, ExecutorService workers, int capacity, Function<T, R> transform, Writer<R> writer)
+    {
+        this.workers = workers;
+        this.transform = transform;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.written = writerThread.submit(() -> write(writer));
+    }
+
+    /**
+     * @MethodName: newWorkerPool
+     * @Description: 创建转换用的线程池（守护线程）
+     * @param workers 线程数，小于1时取CPU核数
+     * @param name 线程名前缀
+     * @Return ExecutorService
+     **/
+    public static ExecutorService newWorkerPool(int workers, String name)
+    {
+        AtomicInteger index = new AtomicInteger();
+        int threads = workers < 1 ? Runtime.getRuntime().availableProcessors() : workers;
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @MethodName: submit
+     * @Description: 提交一条数据，队列已满时阻塞等待
+     * @param item 数据
+     * @Return void
+     **/
+    public void submit(T item) throws IOException
+    {
+        checkFailure();
+        enqueue(workers.submit(() -> transform.apply(item)));
+    }
+
+    /**
+     * @MethodName: finish
+     * @Description: 结束提交，等待所有数据写出
+     * @Return long 写出的数据量
+     **/
+    public long finish() throws IOException
+    {
+        enqueue(END);
+        try
+        {
+            return written.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待写出被中断");
+        } catch (ExecutionException e)
+        {
+            throw toIOException(e.getCause());
+        }
+    }
+
+    /**
+     * 停止写线程，未完成时丢弃剩余数据；返回时写线程已结束，不会再写入输出
+     */
+    @Override
+    public void close()
+    {
+        shutdownAndAwait(writerThread);
+    }
+
+    /**
+     * @MethodName: shutdownAndAwait
+     * @Description: 中断并等待线程池中的任务结束，等待期间被中断时继续等待，结束后恢复中断状态
+     * @param executor 线程池
+     * @Return void
+     **/
+    public static void shutdownAndAwait(ExecutorService executor)
+    {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true)
+        {
+            try
+            {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS))
+                {
+                    break;
+                }
+            } catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 放入队列，写线程出错时不再等待
+     */
+    private void enqueue(Future<?> future) throws IOException
+    {
+        try
+        {
+            while (!queue.offer(future, 100, TimeUnit.MILLISECONDS))
+            {
+                checkFailure();
+            }
+        } catch (InterruptedException e)
+        {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("提交数据被中断");
+        }
+    }
+
+    /**
+     * 写线程：按队列顺序取出转换结果并写出
+     */
+    @SuppressWarnings("unchecked")
+    private long write(Writer<R> writer) throws Exception
+    {
+        long count = 0;
+        try
+        {
+            Future<?> future;
+            while ((future = queue.take()) != END)
+            {
+                writer.write((R) getResult(future));
+                count++;
+            }
+            return count;
+        } catch (Throwable e)
+        {
+            failure = e;
+            // 丢弃队列中剩余的数据，避免提交方阻塞
+            Future<?> future;
+            while ((future = queue.poll()) != null)
+            {
+                future.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private static Object getResult(Future<?> future) throws Exception
+    {
+        try
+        {
+            return future.get();
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private void checkFailure() throws IOException
+    {
+        if (failure != null)
+        {
+            throw toIOException(failure);
+        }
+    }
+
+    /**
+     * 转换为IOException抛出，运行时异常原样抛出
+     */
+    private static IOException toIOException(Throwable e)
+    {
+        if (e instanceof IOException)
+        {
+            return (IOException) e;
+        }
+        if (e instanceof RuntimeException)
+        {
+            throw (RuntimeException) e;
+        }
+        return new IOException(e);
+    }
+
+    /**
+     * 写出阶段
+     */
+    public interface Writer<R>
+    {
+        void write(R item) throws IOException;
+    }
+}
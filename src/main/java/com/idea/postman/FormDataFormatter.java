@@ -0,0 +1,148 @@
+package com.idea.postman;
+
+import java.util.Map;
+
+/**
+ * @ClassName: FormDataFormatter
+ * @Description: Form-data格式化工具，输出与原先的 <br>
+ *  mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formdata).replace("\\\"", "\"")
+ *  逐字节一致：两空格缩进、" : "分隔、空对象为"{ }"、换行符为系统换行符，
+ *  按JSON规则转义后再去掉紧挨在双引号前的反斜杠。
+ *  直接写入复用的StringBuilder，不创建pretty printer、writer和中间字符串。
+ *  非线程安全，每个线程使用各自的实例
+ * @Author: yuanbao
+ * @Date: 2025/4/2
+ **/
+public class FormDataFormatter
+{
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final StringBuilder sb = new StringBuilder(256);
+
+    /**
+     * @MethodName: format
+     * @Description: 格式化请求记录的Form-data
+     * @param record 请求记录
+     * @Return String
+     **/
+    public String format(RequestRecord record)
+    {
+        sb.setLength(0);
+        int size = record.getFormSize();
+        if (size == 0)
+        {
+            return "{ }";
+        }
+        sb.append('{');
+        for (int i = 0; i < size; i++)
+        {
+            appendEntry(record.getFormKey(i), record.getFormValue(i), i == 0);
+        }
+        sb.append(LINE_SEPARATOR).append('}');
+        return sb.toString();
+    }
+
+    /**
+     * @MethodName: format
+     * @Description: 格式化Form-data键值对
+     * @param formdata Form-data键值对
+     * @Return String
+     **/
+    public String format(Map<String, String> formdata)
+    {
+        sb.setLength(0);
+        if (formdata.isEmpty())
+        {
+            return "{ }";
+        }
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> entry : formdata.entrySet())
+        {
+            appendEntry(entry.getKey(), entry.getValue(), first);
+            first = false;
+        }
+        sb.append(LINE_SEPARATOR).append('}');
+        return sb.toString();
+    }
+
+    private void appendEntry(String key, String value, boolean first)
+    {
+        if (!first)
+        {
+            sb.append(',');
+        }
+        sb.append(LINE_SEPARATOR).append("  ");
+        appendString(key);
+        sb.append(" : ");
+        if (value == null)
+        {
+            sb.append("null");
+        } else
+        {
+            appendString(value);
+        }
+    }
+
+    /**
+     * 按JSON规则转义字符串，再模拟原先的replace("\\\"", "\"")：
+     * 内容中的双引号原样输出；内容以反斜杠结尾时，转义出的\\与结束引号相邻，会被去掉一个反斜杠
+     */
+    private void appendString(String value)
+    {
+        appendQuote();
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"')
+            {
+                sb.append('"'); // 转义后的\"经replace还原为"
+            } else if (c == '\\')
+            {
+                sb.append("\\\\");
+            } else if (c < 0x20)
+            {
+                switch (c)
+                {
+                    case '\b':
+                        sb.append("\\b");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\f':
+                        sb.append("\\f");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    default:
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                        break;
+                }
+            } else
+            {
+                sb.append(c);
+            }
+        }
+        appendQuote();
+    }
+
+    /**
+     * 写入首尾的双引号；前一个字符为反斜杠时先去掉该反斜杠
+     */
+    private void appendQuote()
+    {
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == '\\')
+        {
+            sb.setLength(length - 1);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,166 @@
+package com.idea.postman;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @ClassName: PostmanRequestSpliterator
+ * @Description: 按需遍历Postman集合中请求的Spliterator <br>
+ *  用显式栈代替递归遍历嵌套的item目录，深层嵌套不会栈溢出；每次tryAdvance只产出一条请求记录，
+ *  不需要先把所有请求收集到List中。
+ *  支持按顶层目录拆分，用于并行流
+ * @Author: yuanbao
+ * @Date: 2025/3/31
+ **/
+public class PostmanRequestSpliterator implements Spliterator<RequestRecord>
+{
+    // 顶层item节点
+    private final List<JsonNode> topItems;
+
+    private int index;
+
+    private final int end;
+
+    // 正在遍历的嵌套目录
+    private final Deque<Frame> stack;
+
+    private final Predicate<String> urlFilter;
+
+    // Form-data字段缓冲区，每个Spliterator各自一个
+    private final RequestRecord.FormFields fields = new RequestRecord.FormFields();
+
+    private PostmanRequestSpliterator(List<JsonNode> topItems, int index, int end, Deque<Frame> stack, Predicate<String> urlFilter)
+    {
+        this.topItems = topItems;
+        this.index = index;
+        this.end = end;
+        this.stack = stack;
+        this.urlFilter = urlFilter;
+    }
+
+    /**
+     * @MethodName: stream
+     * @Description: 以流的形式遍历集合中的请求
+     * @param items 集合根节点下的item节点
+     * @param urlFilter URL过滤条件，仅匹配的请求才会输出
+     * @param parallel 是否并行流（按顶层目录拆分）
+     * @Return Stream<RequestRecord> 请求记录
+     **/
+    public static Stream<RequestRecord> stream(JsonNode items, Predicate<String> urlFilter, boolean parallel)
+    {
+        List<JsonNode> topItems = new ArrayList<>(items.size());
+        items.forEach(topItems::add);
+        return StreamSupport.stream(new PostmanRequestSpliterator(topItems, 0, topItems.size(), new ArrayDeque<>(), urlFilter), parallel);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super RequestRecord> action)
+    {
+        while (true)
+        {
+            JsonNode item;
+            String folder;
+            if (!stack.isEmpty())
+            {
+                Frame frame = stack.peek();
+                if (!frame.items.hasNext())
+                {
+                    stack.pop();
+                    continue;
+                }
+                item = frame.items.next();
+                folder = frame.folder;
+            } else if (index < end)
+            {
+                item = topItems.get(index++);
+                folder = "";
+            } else
+            {
+                return false;
+            }
+
+            if (item.has("item"))
+            {
+                // 目录，压栈后继续遍历子节点
+                String name = item.path("name").asText();
+                stack.push(new Frame(item.path("item").iterator(), folder.isEmpty() ? name : folder + "/" + name));
+                continue;
+            }
+
+            String url = item.path("request").path("url").asText("");
+            if (urlFilter.test(url))
+            {
+                action.accept(toRecord(item, url, folder));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 拆分出前半部分的顶层节点（含当前正在遍历的目录），自身保留后半部分，保证有序流的顺序
+     */
+    @Override
+    public Spliterator<RequestRecord> trySplit()
+    {
+        int remaining = end - index;
+        if (remaining < 2)
+        {
+            return null;
+        }
+        int mid = index + remaining / 2;
+        Deque<Frame> prefixStack = new ArrayDeque<>(stack);
+        stack.clear();
+        PostmanRequestSpliterator prefix = new PostmanRequestSpliterator(topItems, index, mid, prefixStack, urlFilter);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        // 请求数未知，以剩余的顶层节点数作为拆分依据
+        return stack.isEmpty() ? end - index : end - index + 1;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * 提取请求记录，值为空的Form-data字段忽略
+     */
+    private RequestRecord toRecord(JsonNode item, String url, String folder)
+    {
+        item.path("request").path("body").path("formdata")
+                .forEach(field -> fields.add(field.path("key").asText(), field.path("value").asText()));
+        return fields.toRecord(item.path("name").asText(), url, folder);
+    }
+
+    /**
+     * 栈中的一层目录
+     */
+    private static final class Frame
+    {
+        private final Iterator<JsonNode> items;
+
+        private final String folder;
+
+        Frame(Iterator<JsonNode> items, String folder)
+        {
+            this.items = items;
+            this.folder = folder;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.idea.postman;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * @ClassName: PostmanStreamParser
+ * @Description: Postman集合文件的流式解析器 <br>
+ *  基于Jackson的JsonParser按token逐个读取，不构建完整的JsonNode树：
+ *      1. 流式遍历item数组（含嵌套目录，以显式栈展开，嵌套深度不受线程栈限制），每解析完一个请求即回调输出一条记录
+ *      2. 只读取name、request.url、request.body.formdata，其余子树（response、event、auth等）直接跳过
+ *      3. 记录请求所在的目录路径（folder），目录的name需位于其item之前（Postman导出的顺序即如此）
+ *  内存占用只与单个请求的大小相关，与文件大小无关
+ * @Author: yuanbao
+ * @Date: 2025/3/20
+ **/
+public class PostmanStreamParser
+{
+    private static final JsonFactory factory = new JsonFactory();
+
+    /**
+     * 流式解析Postman集合文件
+     *
+     * @param jsonFile
+     *         JSON文件路径
+     * @param urlFilter
+     *         URL过滤条件，仅匹配的请求才会输出
+     * @param consumer
+     *         请求记录的回调
+     * @throws IOException
+     *         读取或解析失败
+     */
+    public static void parse(Path jsonFile, Predicate<String> urlFilter, Consumer<RequestRecord> consumer) throws IOException
+    {
+        // 整个文件复用同一个字段缓冲区
+        RequestRecord.FormFields fields = new RequestRecord.FormFields();
+        try (JsonParser parser = factory.createParser(jsonFile.toFile()))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("item".equals(field) && token == JsonToken.START_ARRAY)
+                {
+                    parseItems(parser, "", urlFilter, consumer, fields);
+                } else
+                {
+                    parser.skipChildren(); // info、event、variable等顶层节点不需要
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查文件是否为完整的JSON：只读取token并跳过整个根节点，不提取请求记录。
+     * 用于在写入Sheet之前发现格式错误或被截断的文件，避免留下空的或不完整的Sheet
+     *
+     * @param jsonFile
+     *         JSON文件路径
+     * @throws IOException
+     *         读取失败，或文件不是完整的JSON
+     */
+    public static void check(Path jsonFile) throws IOException
+    {
+        try (JsonParser parser = factory.createParser(jsonFile.toFile()))
+        {
+            if (parser.nextToken() != null)
+            {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 解析item数组，当前token为START_ARRAY。
+     * 嵌套的目录用显式栈展开而不是递归，深层嵌套的集合不会栈溢出：
+     * 栈中的数组帧读取子item，对象帧读取单个item的字段；包含子item的对象视为目录，否则作为请求，URL匹配时输出记录
+     */
+    private static void parseItems(JsonParser parser, String folder, Predicate<String> urlFilter, Consumer<RequestRecord> consumer,
+            RequestRecord.FormFields fields) throws IOException
+    {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(true, folder));
+        while (!stack.isEmpty())
+        {
+            Frame frame = stack.peek();
+            JsonToken token = parser.nextToken();
+            if (frame.array)
+            {
+                if (token == JsonToken.END_ARRAY)
+                {
+                    stack.pop();
+                } else if (token == JsonToken.START_OBJECT)
+                {
+                    stack.push(new Frame(false, frame.folder));
+                } else
+                {
+                    parser.skipChildren();
+                }
+                continue;
+            }
+
+            if (token != JsonToken.FIELD_NAME)
+            {
+                // item对象结束
+                stack.pop();
+                if (!frame.isFolder && urlFilter.test(frame.url))
+                {
+                    consumer.accept(fields.toRecord(frame.name, frame.url, frame.folder));
+                } else
+                {
+                    fields.clear();
+                }
+                continue;
+            }
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+            switch (field)
+            {
+                case "item":
+                    frame.isFolder = true;
+                    if (token == JsonToken.START_ARRAY)
+                    {
+                        stack.push(new Frame(true, frame.folder.isEmpty() ? frame.name : frame.folder + "/" + frame.name));
+                    } else
+                    {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "name":
+                    frame.name = readText(parser);
+                    break;
+                case "request":
+                    if (token == JsonToken.START_OBJECT)
+                    {
+                        fields.clear(); // 丢弃上层目录可能残留的字段
+                        frame.url = parseRequest(parser, fields);
+                    } else
+                    {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren(); // response、event、auth等子树直接跳过
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 解析request对象，当前token为START_OBJECT
+     *
+     * @return 请求URL，url不是字符串时返回空串
+     */
+    private static String parseRequest(JsonParser parser, RequestRecord.FormFields fields) throws IOException
+    {
+        String url = "";
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("url".equals(field))
+            {
+                url = readText(parser);
+            } else if ("body".equals(field) && token == JsonToken.START_OBJECT)
+            {
+                parseBody(parser, fields);
+            } else
+            {
+                parser.skipChildren(); // header、auth等
+            }
+        }
+        return url;
+    }
+
+    /**
+     * 解析request.body对象，仅读取formdata数组
+     */
+    private static void parseBody(JsonParser parser, RequestRecord.FormFields fields) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("formdata".equals(field) && token == JsonToken.START_ARRAY)
+            {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+                {
+                    if (token == JsonToken.START_OBJECT)
+                    {
+                        parseFormField(parser, fields);
+                    } else
+                    {
+                        parser.skipChildren();
+                    }
+                }
+            } else
+            {
+                parser.skipChildren(); // raw、urlencoded等
+            }
+        }
+    }
+
+    /**
+     * 解析formdata中的单个字段，值为空时忽略
+     */
+    private static void parseFormField(JsonParser parser, RequestRecord.FormFields fields) throws IOException
+    {
+        String key = "";
+        String value = "";
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("key".equals(field))
+            {
+                key = readText(parser);
+            } else if ("value".equals(field))
+            {
+                value = readText(parser);
+            } else
+            {
+                parser.skipChildren();
+            }
+        }
+        fields.add(key, value);
+    }
+
+    /**
+     * 栈中的一层：item数组（array为true，folder为其中子item所在的目录），或正在读取的item对象
+     */
+    private static final class Frame
+    {
+        private final boolean array;
+
+        private final String folder;
+
+        private boolean isFolder;
+
+        private String name = "";
+
+        private String url = "";
+
+        Frame(boolean array, String folder)
+        {
+            this.array = array;
+            this.folder = folder;
+        }
+    }
+
+    /**
+     * 读取当前值的文本，与JsonNode.asText()保持一致：对象和数组返回空串，null返回"null"
+     */
+    private static String readText(JsonParser parser) throws IOException
+    {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)
+        {
+            parser.skipChildren();
+            return "";
+        }
+        if (token == JsonToken.VALUE_NULL)
+        {
+            return "null";
+        }
+        return parser.getText();
+    }
+}
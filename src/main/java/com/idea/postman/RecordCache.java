@@ -0,0 +1,289 @@
+package com.idea.postman;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ClassName: RecordCache
+ * @Description: 请求记录的磁盘缓存 <br>
+ *  以文件内容的SHA-256（再加上缓存格式版本、工具版本、提取代码的摘要、解析模式和URL规则）作为键，
+ *  将文件提取出的请求记录以紧凑的二进制格式保存到缓存目录中。
+ *  文件内容未变化时直接读取缓存，跳过JSON解析；规则、解析模式或提取代码变化后键随之变化，旧缓存自动失效。
+ *  提取代码的摘要取自解析相关类的字节码，从jar或classes目录运行、版本号未变时同样有效
+ * @Author: yuanbao
+ * @Date: 2025/3/24
+ **/
+public class RecordCache
+{
+    // 缓存文件格式版本，修改提取逻辑或存储格式时需要递增
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x504A4143; // "PJAC"
+
+    private static final String SUFFIX = ".bin";
+
+    // 决定提取结果的类，其字节码的摘要参与缓存键
+    private static final Class<?>[] EXTRACTION_CLASSES = {
+            PostmanStreamParser.class, PostmanRequestSpliterator.class, RequestRecord.class, RequestRecord.FormFields.class
+    };
+
+    // 每条记录至少包含的字节数：名称、url、字段数、目录各一个int
+    private static final int MIN_RECORD_BYTES = 16;
+
+    // 每个Form-data字段至少包含的字节数：键、值的长度各一个int
+    private static final int MIN_FIELD_BYTES = 8;
+
+    private final Path cacheDir;
+
+    private final String salt;
+
+    // 各文件最近一次计算的缓存键，用于清理过期缓存
+    private final Map<Path, String> keysByFile = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheDir 缓存目录，不存在时自动创建
+     * @param ruleVersion URL规则的描述，规则变化时缓存失效
+     * @param parserMode 解析模式（stream、tree），两种模式为不同的代码路径，缓存互不共用
+     */
+    public RecordCache(Path cacheDir, String ruleVersion, String parserMode) throws IOException
+    {
+        this.cacheDir = Files.createDirectories(cacheDir);
+        String toolVersion = RecordCache.class.getPackage().getImplementationVersion();
+        this.salt = FORMAT_VERSION + "|" + toolVersion + "|" + extractionDigest() + "|" + parserMode + "|" + ruleVersion;
+    }
+
+    /**
+     * @MethodName: key
+     * @Description: 计算文件的缓存键
+     * @param jsonFile JSON文件
+     * @Return String 十六进制的SHA-256
+     **/
+    public String key(Path jsonFile) throws IOException
+    {
+        MessageDigest digest = sha256();
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(jsonFile))
+        {
+            int n;
+            while ((n = in.read(buffer)) > 0)
+            {
+                digest.update(buffer, 0, n);
+            }
+        }
+        String key = hex(digest.digest());
+        keysByFile.put(jsonFile.toAbsolutePath().normalize(), key);
+        return key;
+    }
+
+    /**
+     * @MethodName: load
+     * @Description: 读取缓存的请求记录
+     * @param key 缓存键
+     * @Return List<RequestRecord> 未命中或缓存损坏时返回null
+     **/
+    public List<RequestRecord> load(String key)
+    {
+        Path file = cacheDir.resolve(key + SUFFIX);
+        if (!Files.exists(file))
+        {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            // 长度和数量均不能超过文件大小，损坏的文件不会导致分配过大的数组
+            long size = Files.size(file);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+            {
+                return null;
+            }
+            int count = readLength(in, size / MIN_RECORD_BYTES);
+            List<RequestRecord> dataList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                String name = readString(in, size);
+                String url = readString(in, size);
+                int fieldCount = readLength(in, size / MIN_FIELD_BYTES);
+                String[] formKeys = new String[fieldCount];
+                String[] formValues = new String[fieldCount];
+                for (int j = 0; j < fieldCount; j++)
+                {
+                    formKeys[j] = readString(in, size);
+                    formValues[j] = readString(in, size);
+                }
+                dataList.add(new RequestRecord(name, url, readString(in, size), formKeys, formValues));
+            }
+            return dataList;
+        } catch (IOException | RuntimeException e)
+        {
+            return null; // 缓存损坏视为未命中，重新解析
+        }
+    }
+
+    /**
+     * @MethodName: store
+     * @Description: 写入缓存，先写临时文件再重命名，避免并发读取到不完整的缓存
+     * @param key 缓存键
+     * @param dataList 请求记录
+     * @Return void
+     **/
+    public void store(String key, List<RequestRecord> dataList) throws IOException
+    {
+        Path tmp = Files.createTempFile(cacheDir, key, ".tmp");
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(dataList.size());
+                for (RequestRecord data : dataList)
+                {
+                    writeString(out, data.getName());
+                    writeString(out, data.getUrl());
+                    out.writeInt(data.getFormSize());
+                    for (int i = 0; i < data.getFormSize(); i++)
+                    {
+                        writeString(out, data.getFormKey(i));
+                        writeString(out, data.getFormValue(i));
+                    }
+                    writeString(out, data.getFolder());
+                }
+            }
+            Files.move(tmp, cacheDir.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @MethodName: prune
+     * @Description: 删除过期的缓存文件，只保留给定文件最近一次计算的缓存键对应的缓存（文件已变化或已删除时旧缓存被删除）。
+     *  监听模式下每次重新生成后调用，缓存目录不会随修改次数增长
+     * @param liveFiles 当前存在的JSON文件
+     * @Return int 删除的文件数
+     **/
+    public int prune(Collection<Path> liveFiles) throws IOException
+    {
+        Set<String> liveKeys = new HashSet<>();
+        for (Path jsonFile : liveFiles)
+        {
+            String key = keysByFile.get(jsonFile.toAbsolutePath().normalize());
+            if (key != null)
+            {
+                liveKeys.add(key);
+            }
+        }
+        keysByFile.values().retainAll(liveKeys);
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*" + SUFFIX))
+        {
+            for (Path file : files)
+            {
+                String name = file.getFileName().toString();
+                if (!liveKeys.contains(name.substring(0, name.length() - SUFFIX.length())))
+                {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, long maxLength) throws IOException
+    {
+        byte[] bytes = new byte[readLength(in, maxLength)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取长度或数量，超出0到max的范围时视为缓存损坏
+     */
+    private static int readLength(DataInputStream in, long max) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0 || length > max)
+        {
+            throw new IOException("缓存文件损坏：长度" + length);
+        }
+        return length;
+    }
+
+    /**
+     * 提取相关类字节码的SHA-256，无法读取字节码时返回空串（只依赖其余部分）
+     */
+    private static String extractionDigest()
+    {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8 * 1024];
+        for (Class<?> type : EXTRACTION_CLASSES)
+        {
+            String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+            try (InputStream in = type.getResourceAsStream(resource))
+            {
+                if (in == null)
+                {
+                    return "";
+                }
+                int n;
+                while ((n = in.read(buffer)) > 0)
+                {
+                    digest.update(buffer, 0, n);
+                }
+            } catch (IOException e)
+            {
+                return "";
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    private static String hex(byte[] bytes)
+    {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest sha256()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
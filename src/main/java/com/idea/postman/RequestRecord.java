@@ -0,0 +1,133 @@
+package com.idea.postman;
+
+import java.util.Arrays;
+
+/**
+ * @ClassName: RequestRecord
+ * @Description: 从Postman集合中提取出的一条请求 <br>
+ *  Form-data字段以两个平行数组保存（formKeys[i]对应formValues[i]），保持原有顺序，
+ *  同名字段只保留一个（取最后一次的值，位置为第一次出现的位置），值为空的字段不保存
+ * @Author: yuanbao
+ * @Date: 2025/4/2
+ **/
+public final class RequestRecord
+{
+    private static final String[] EMPTY = new String[0];
+
+    // 功能名
+    private final String name;
+
+    // 请求URL
+    private final String url;
+
+    // 所在目录，以/分隔，顶层为空串
+    private final String folder;
+
+    private final String[] formKeys;
+
+    private final String[] formValues;
+
+    public RequestRecord(String name, String url, String folder, String[] formKeys, String[] formValues)
+    {
+        if (formKeys.length != formValues.length)
+        {
+            throw new IllegalArgumentException("formKeys与formValues长度不一致");
+        }
+        this.name = name;
+        this.url = url;
+        this.folder = folder;
+        this.formKeys = formKeys.length == 0 ? EMPTY : formKeys;
+        this.formValues = formValues.length == 0 ? EMPTY : formValues;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getUrl()
+    {
+        return url;
+    }
+
+    public String getFolder()
+    {
+        return folder;
+    }
+
+    /**
+     * Form-data字段数
+     */
+    public int getFormSize()
+    {
+        return formKeys.length;
+    }
+
+    public String getFormKey(int index)
+    {
+        return formKeys[index];
+    }
+
+    public String getFormValue(int index)
+    {
+        return formValues[index];
+    }
+
+    /**
+     * 解析过程中收集Form-data字段，可在多个请求之间复用
+     */
+    static final class FormFields
+    {
+        private String[] keys = new String[8];
+
+        private String[] values = new String[8];
+
+        private int size;
+
+        /**
+         * 添加字段，值为空时忽略，同名字段覆盖原值
+         */
+        void add(String key, String value)
+        {
+            if (value.isEmpty())
+            {
+                return;
+            }
+            for (int i = 0; i < size; i++)
+            {
+                if (keys[i].equals(key))
+                {
+                    values[i] = value;
+                    return;
+                }
+            }
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * 生成请求记录，并清空以便下一个请求复用
+         */
+        RequestRecord toRecord(String name, String url, String folder)
+        {
+            RequestRecord record = new RequestRecord(name, url, folder,
+                    size == 0 ? EMPTY : Arrays.copyOf(keys, size),
+                    size == 0 ? EMPTY : Arrays.copyOf(values, size));
+            clear();
+            return record;
+        }
+
+        void clear()
+        {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+}
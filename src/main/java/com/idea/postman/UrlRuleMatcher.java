@@ -0,0 +1,198 @@
+package com.idea.postman;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * @ClassName: UrlRuleMatcher
+ * @Description: 请求URL的多规则匹配器 <br>
+ *  包含规则与排除规则分别预编译为一个合并后的正则，每个URL只需各匹配一次：
+ *      URL匹配任一包含规则，且不匹配任一排除规则时视为有效请求
+ *  单条规则的语义与原先的 url.matches(".*" + rule) 一致，即规则需匹配到URL末尾。
+ *  若每条包含规则都以字面量开头（如 "!select.*\\.m$" 的 "!select"），则先用contains做预筛选，
+ *  不包含任何字面量前缀的URL无需执行正则
+ * @Author: yuanbao
+ * @Date: 2025/3/22
+ **/
+public class UrlRuleMatcher implements Predicate<String>
+{
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    // 合并后的包含规则，为null表示不匹配任何URL
+    private final Pattern includePattern;
+
+    // 合并后的排除规则，为null表示没有排除规则
+    private final Pattern excludePattern;
+
+    // 包含规则的字面量前缀，为null表示无法预筛选
+    private final String[] includeLiterals;
+
+    public UrlRuleMatcher(List<String> includes, List<String> excludes)
+    {
+        this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+        this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+        this.includePattern = compile(includes);
+        this.excludePattern = compile(excludes);
+        this.includeLiterals = extractLiterals(includes);
+    }
+
+    /**
+     * @MethodName: test
+     * @Description: 判断URL是否为有效请求
+     * @param url 请求URL
+     * @Return boolean
+     **/
+    @Override
+    public boolean test(String url)
+    {
+        if (includePattern == null || !containsAnyLiteral(url))
+        {
+            return false;
+        }
+        if (!includePattern.matcher(url).matches())
+        {
+            return false;
+        }
+        return excludePattern == null || !excludePattern.matcher(url).matches();
+    }
+
+    public List<String> getIncludes()
+    {
+        return includes;
+    }
+
+    public List<String> getExcludes()
+    {
+        return excludes;
+    }
+
+    /**
+     * @MethodName: loadRules
+     * @Description: 从规则文件中读取规则，每行一条：
+     *  以 - 开头为排除规则，以 + 开头或无前缀为包含规则，空行和 # 开头的注释行忽略
+     * @param rulesFile 规则文件
+     * @param includes 接收包含规则
+     * @param excludes 接收排除规则
+     * @Return void
+     **/
+    public static void loadRules(Path rulesFile, List<String> includes, List<String> excludes) throws IOException
+    {
+        for (String line : Files.readAllLines(rulesFile, StandardCharsets.UTF_8))
+        {
+            String rule = line.trim();
+            if (rule.isEmpty() || rule.startsWith("#"))
+            {
+                continue;
+            }
+            if (rule.startsWith("-"))
+            {
+                excludes.add(rule.substring(1).trim());
+            } else if (rule.startsWith("+"))
+            {
+                includes.add(rule.substring(1).trim());
+            } else
+            {
+                includes.add(rule);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "include=" + includes + ", exclude=" + excludes;
+    }
+
+    /**
+     * 将多条规则合并为一个正则：.*(?:(?:r1)|(?:r2)...)
+     */
+    private static Pattern compile(List<String> rules)
+    {
+        if (rules.isEmpty())
+        {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder(".*(?:");
+        for (int i = 0; i < rules.size(); i++)
+        {
+            if (i > 0)
+            {
+                regex.append('|');
+            }
+            // 逐条编译以便定位错误的规则
+            Pattern.compile(rules.get(i));
+            regex.append("(?:").append(rules.get(i)).append(')');
+        }
+        regex.append(')');
+        return Pattern.compile(regex.toString());
+    }
+
+    private boolean containsAnyLiteral(String url)
+    {
+        if (includeLiterals == null)
+        {
+            return true;
+        }
+        for (String literal : includeLiterals)
+        {
+            if (url.contains(literal))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 提取每条规则开头的字面量，任一规则没有字面量前缀时返回null
+     */
+    private static String[] extractLiterals(List<String> rules)
+    {
+        if (rules.isEmpty())
+        {
+            return null;
+        }
+        String[] literals = new String[rules.size()];
+        for (int i = 0; i < rules.size(); i++)
+        {
+            String literal = literalPrefix(rules.get(i));
+            if (literal.isEmpty())
+            {
+                return null;
+            }
+            literals[i] = literal;
+        }
+        return literals;
+    }
+
+    /**
+     * 规则开头不含正则元字符的部分；规则含有 | 时整体可能不以该前缀开头，返回空串
+     */
+    static String literalPrefix(String rule)
+    {
+        if (rule.indexOf('|') >= 0)
+        {
+            return "";
+        }
+        int end = 0;
+        while (end < rule.length() && "\\.[]{}()*+?^$".indexOf(rule.charAt(end)) < 0)
+        {
+            end++;
+        }
+        // 后面紧跟量词时，最后一个字符是可选的
+        if (end < rule.length() && end > 0 && "*?{".indexOf(rule.charAt(end)) >= 0)
+        {
+            end--;
+        }
+        return rule.substring(0, end);
+    }
+}
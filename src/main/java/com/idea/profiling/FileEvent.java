@@ -0,0 +1,27 @@
+package com.idea.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * @ClassName: FileEvent
+ * @Description: 按Postman文件记录的JFR事件的基类 <br>
+ *  由JfrFileTrace创建和提交，业务代码通过FileTraces使用，不直接引用；未开启Flight Recording时commit()不记录，开销可忽略
+ * @Author: yuanbao
+ * @Date: 2025/4/17
+ **/
+@Category({ "PostJsonAnalysis" })
+public abstract class FileEvent extends Event
+{
+    @Label("文件名")
+    public String fileName;
+
+    @Label("请求数")
+    public int requestCount;
+
+    @Label("文件大小")
+    @DataAmount
+    public long bytes;
+}
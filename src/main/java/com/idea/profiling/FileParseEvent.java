@@ -0,0 +1,18 @@
+package com.idea.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @ClassName: FileParseEvent
+ * @Description: JFR事件：解析一个Postman JSON文件；流式解析时请求的提取（以及直接写入时的行写入）在解析过程中完成 <br>
+ * @Author: yuanbao
+ * @Date: 2025/4/17
+ **/
+@Name("com.idea.FileParse")
+@Label("文件解析")
+@Description("解析一个Postman JSON文件；流式解析时请求的提取（以及直接写入时的行写入）在解析过程中完成")
+public class FileParseEvent extends FileEvent
+{
+}
@@ -0,0 +1,157 @@
+package com.idea.profiling;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @ClassName: FileStats
+ * @Description: 按文件汇总的耗时和内存分配统计，用于--stats输出 <br>
+ *  每段处理（解析、提取、写入Sheet）用start/end包围，记录所在线程的耗时和分配的字节数并累加到对应文件；
+ *  同一文件的各段可以在不同线程中执行（如并行解析后在主线程写入）。
+ *  分配字节数来自com.sun.management.ThreadMXBean，JVM不支持时输出为-
+ * @Author: yuanbao
+ * @Date: 2025/4/17
+ **/
+public class FileStats
+{
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    // 按文件名排序
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * 单个文件的累计值
+     */
+    private static final class Entry
+    {
+        private long wallNanos;
+
+        private long allocatedBytes;
+
+        private int requests;
+    }
+
+    /**
+     * 一段正在进行的处理
+     */
+    public final class Span
+    {
+        private final String fileName;
+
+        private final long startNanos = System.nanoTime();
+
+        private final long startAllocated = allocatedBytes();
+
+        private Span(String fileName)
+        {
+            this.fileName = fileName;
+        }
+
+        /**
+         * @MethodName: end
+         * @Description: 结束该段处理，累加到文件的统计中
+         * @param requests 该段处理的请求数，同一文件只在一段中计入，其余传0
+         * @Return void
+         **/
+        public void end(int requests)
+        {
+            long wall = System.nanoTime() - startNanos;
+            long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+            synchronized (entries)
+            {
+                Entry entry = entries.computeIfAbsent(fileName, key -> new Entry());
+                entry.wallNanos += wall;
+                entry.allocatedBytes = allocated < 0 || entry.allocatedBytes < 0 ? -1 : entry.allocatedBytes + allocated;
+                entry.requests += requests;
+            }
+        }
+    }
+
+    /**
+     * @MethodName: start
+     * @Description: 开始一段处理
+     * @param fileName 文件名
+     * @Return Span
+     **/
+    public Span start(String fileName)
+    {
+        return new Span(fileName);
+    }
+
+    /**
+     * @MethodName: print
+     * @Description: 输出按文件的统计表：耗时、分配的内存、请求数和每秒请求数，最后一行为合计
+     * @param out 输出流
+     * @Return void
+     **/
+    public void print(PrintStream out)
+    {
+        List<Object[]> rows = new ArrayList<>();
+        long totalWall = 0;
+        long totalAllocated = 0;
+        int totalRequests = 0;
+        synchronized (entries)
+        {
+            for (Map.Entry<String, Entry> e : entries.entrySet())
+            {
+                Entry entry = e.getValue();
+                rows.add(row(e.getKey(), entry.wallNanos, entry.allocatedBytes, entry.requests));
+                totalWall += entry.wallNanos;
+                totalAllocated = totalAllocated < 0 || entry.allocatedBytes < 0 ? -1 : totalAllocated + entry.allocatedBytes;
+                totalRequests += entry.requests;
+            }
+        }
+        rows.add(row("合计", totalWall, totalAllocated, totalRequests));
+
+        int nameWidth = 4;
+        for (Object[] row : rows)
+        {
+            nameWidth = Math.max(nameWidth, ((String) row[0]).length());
+        }
+        String format = "%-" + nameWidth + "s %10s %12s %8s %10s%n";
+        out.printf(format, "文件", "耗时(ms)", "分配(MB)", "请求数", "请求/秒");
+        for (Object[] row : rows)
+        {
+            out.printf(format, row);
+        }
+    }
+
+    private static Object[] row(String name, long wallNanos, long allocatedBytes, int requests)
+    {
+        double seconds = wallNanos / 1e9;
+        return new Object[] {
+                name,
+                String.format("%.1f", wallNanos / 1e6),
+                allocatedBytes < 0 ? "-" : String.format("%.2f", allocatedBytes / (1024.0 * 1024.0)),
+                String.valueOf(requests),
+                seconds > 0 ? String.format("%.0f", requests / seconds) : "-"
+        };
+    }
+
+    /**
+     * 当前线程累计分配的字节数，不支持时返回-1
+     */
+    private static long allocatedBytes()
+    {
+        return ALLOCATION_BEAN == null ? -1 : ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled())
+            {
+                return allocationBean;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.idea.profiling;
+
+import java.nio.file.Path;
+
+/**
+ * @ClassName: FileTrace
+ * @Description: 按Postman文件记录的一段处理（解析、提取、Sheet写入） <br>
+ *  用法：FileTraces.parse()等 → begin() → 处理 → commit(文件, 请求数)。
+ *  运行时支持JFR时记录为对应的JFR事件，否则为空操作；调用方不直接引用jdk.jfr中的类
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+public interface FileTrace
+{
+    /**
+     * 开始计时
+     */
+    void begin();
+
+    /**
+     * 结束计时，之后的处理不计入该段（不调用时在commit时结束）
+     */
+    void end();
+
+    /**
+     * @MethodName: commit
+     * @Description: 填写文件名、请求数和文件大小并提交；未开启Flight Recording时不读取文件大小
+     * @param jsonFile 处理的文件
+     * @param requests 请求数
+     * @Return void
+     **/
+    void commit(Path jsonFile, int requests);
+}
@@ -0,0 +1,82 @@
+package com.idea.profiling;
+
+import java.nio.file.Path;
+
+/**
+ * @ClassName: FileTraces
+ * @Description: 创建FileTrace <br>
+ *  启动时探测jdk.jfr.Event是否存在（Java 8的部分运行时没有JFR），存在时由JfrFileTrace创建JFR事件，
+ *  否则返回空操作。JFR事件类只在JfrFileTrace中引用，探测失败时不会被加载
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+public final class FileTraces
+{
+    private static final boolean JFR_AVAILABLE = probeJfr();
+
+    private static final FileTrace NOOP = new FileTrace()
+    {
+        @Override
+        public void begin()
+        {
+        }
+
+        @Override
+        public void end()
+        {
+        }
+
+        @Override
+        public void commit(Path jsonFile, int requests)
+        {
+        }
+    };
+
+    private FileTraces()
+    {
+    }
+
+    /**
+     * 解析一个Postman JSON文件
+     */
+    public static FileTrace parse()
+    {
+        return JFR_AVAILABLE ? JfrFileTrace.parse() : NOOP;
+    }
+
+    /**
+     * 从一个文件中提取请求记录
+     */
+    public static FileTrace extract()
+    {
+        return JFR_AVAILABLE ? JfrFileTrace.extract() : NOOP;
+    }
+
+    /**
+     * 将一个文件的请求记录写入Sheet
+     */
+    public static FileTrace sheetWrite()
+    {
+        return JFR_AVAILABLE ? JfrFileTrace.sheetWrite() : NOOP;
+    }
+
+    /**
+     * 运行时是否支持JFR
+     */
+    public static boolean isJfrAvailable()
+    {
+        return JFR_AVAILABLE;
+    }
+
+    private static boolean probeJfr()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event", false, FileTraces.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+}
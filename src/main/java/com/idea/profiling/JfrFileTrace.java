@@ -0,0 +1,67 @@
+package com.idea.profiling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @ClassName: JfrFileTrace
+ * @Description: 以JFR事件（FileEvent的子类）记录的FileTrace，只在FileTraces探测到JFR后加载 <br>
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+final class JfrFileTrace implements FileTrace
+{
+    private final FileEvent event;
+
+    private JfrFileTrace(FileEvent event)
+    {
+        this.event = event;
+    }
+
+    static FileTrace parse()
+    {
+        return new JfrFileTrace(new FileParseEvent());
+    }
+
+    static FileTrace extract()
+    {
+        return new JfrFileTrace(new RequestExtractEvent());
+    }
+
+    static FileTrace sheetWrite()
+    {
+        return new JfrFileTrace(new SheetWriteEvent());
+    }
+
+    @Override
+    public void begin()
+    {
+        event.begin();
+    }
+
+    @Override
+    public void end()
+    {
+        event.end();
+    }
+
+    @Override
+    public void commit(Path jsonFile, int requests)
+    {
+        if (!event.shouldCommit())
+        {
+            return;
+        }
+        event.fileName = jsonFile.getFileName().toString();
+        event.requestCount = requests;
+        try
+        {
+            event.bytes = Files.size(jsonFile);
+        } catch (IOException e)
+        {
+            event.bytes = -1;
+        }
+        event.commit();
+    }
+}
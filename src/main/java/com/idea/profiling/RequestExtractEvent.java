@@ -0,0 +1,18 @@
+package com.idea.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @ClassName: RequestExtractEvent
+ * @Description: JFR事件：从一个文件中提取请求记录；命中增量缓存时为读取缓存 <br>
+ * @Author: yuanbao
+ * @Date: 2025/4/17
+ **/
+@Name("com.idea.RequestExtract")
+@Label("请求提取")
+@Description("从一个文件中提取请求记录；命中增量缓存时为读取缓存")
+public class RequestExtractEvent extends FileEvent
+{
+}
@@ -0,0 +1,18 @@
+package com.idea.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @ClassName: SheetWriteEvent
+ * @Description: JFR事件：将一个文件的请求记录写入报表的Sheet <br>
+ * @Author: yuanbao
+ * @Date: 2025/4/17
+ **/
+@Name("com.idea.SheetWrite")
+@Label("Sheet写入")
+@Description("将一个文件的请求记录写入报表的Sheet")
+public class SheetWriteEvent extends FileEvent
+{
+}
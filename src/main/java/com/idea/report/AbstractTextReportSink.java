@@ -0,0 +1,88 @@
+package com.idea.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @ClassName: AbstractTextReportSink
+ * @Description: 文本格式报表输出的基类，负责临时文件、写入器和发布 <br>
+ *  所有Sheet写入同一个文件，子类通过sheetName区分记录所属的Sheet。
+ *  输出到流时不使用临时文件，内容边生成边写出，finish()时刷新（不关闭）流
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+abstract class AbstractTextReportSink implements ReportSink
+{
+    private final Path outputFile;
+
+    private final Path tmpFile;
+
+    protected final ChannelTextWriter writer;
+
+    protected String sheetName;
+
+    protected ReportColumn[] columns;
+
+    // 当前行已写入的列数
+    protected int colNum;
+
+    private boolean finished;
+
+    AbstractTextReportSink(Path outputFile) throws IOException
+    {
+        this.outputFile = outputFile;
+        this.tmpFile = ReportSinks.createTempFile(outputFile);
+        this.writer = new ChannelTextWriter(tmpFile);
+    }
+
+    AbstractTextReportSink(OutputStream out)
+    {
+        this.outputFile = null;
+        this.tmpFile = null;
+        this.writer = new ChannelTextWriter(out);
+    }
+
+    @Override
+    public void startSheet(String sheetName, ReportColumn[] columns) throws IOException
+    {
+        this.sheetName = sheetName;
+        this.columns = columns;
+    }
+
+    @Override
+    public void startRow() throws IOException
+    {
+        colNum = 0;
+    }
+
+    @Override
+    public void finish() throws IOException
+    {
+        writer.close();
+        if (tmpFile != null)
+        {
+            ReportSinks.publish(tmpFile, outputFile);
+        }
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!finished)
+        {
+            try
+            {
+                writer.close();
+            } finally
+            {
+                if (tmpFile != null)
+                {
+                    Files.deleteIfExists(tmpFile);
+                }
+            }
+        }
+    }
+}
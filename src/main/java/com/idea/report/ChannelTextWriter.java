@@ -0,0 +1,156 @@
+package com.idea.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @ClassName: ChannelTextWriter
+ * @Description: 基于通道（文件或输出流）的UTF-8文本写入器 <br>
+ *  字符先写入复用的CharBuffer，满了之后用复用的编码器编码到直接内存ByteBuffer再写入通道，
+ *  写入过程中不为每个值创建临时字符串或字节数组
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+class ChannelTextWriter implements Closeable
+{
+    private final WritableByteChannel channel;
+
+    // 写入输出流时，close()只刷新不关闭，流由调用方管理
+    private final OutputStream out;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private final CharBuffer chars = CharBuffer.allocate(16 * 1024);
+
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(64 * 1024);
+
+    // 数字转字符的缓冲区，long最多20位加符号
+    private final char[] digits = new char[20];
+
+    ChannelTextWriter(Path file) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
+        this.out = null;
+    }
+
+    ChannelTextWriter(OutputStream out)
+    {
+        this.channel = Channels.newChannel(out);
+        this.out = out;
+    }
+
+    ChannelTextWriter append(char c) throws IOException
+    {
+        if (!chars.hasRemaining())
+        {
+            encode(false);
+        }
+        chars.put(c);
+        return this;
+    }
+
+    ChannelTextWriter append(String s) throws IOException
+    {
+        int offset = 0;
+        int length = s.length();
+        while (offset < length)
+        {
+            if (!chars.hasRemaining())
+            {
+                encode(false);
+            }
+            int n = Math.min(chars.remaining(), length - offset);
+            chars.put(s, offset, offset + n);
+            offset += n;
+        }
+        return this;
+    }
+
+    ChannelTextWriter append(long value) throws IOException
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return append(String.valueOf(value));
+        }
+        if (value < 0)
+        {
+            append('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do
+        {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = pos; i < digits.length; i++)
+        {
+            append(digits[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            encode(true);
+            encoder.flush(bytes);
+            drain();
+        } finally
+        {
+            if (out != null)
+            {
+                out.flush();
+            } else
+            {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 将CharBuffer中的字符编码写入通道，未成对的代理字符保留到下一次
+     */
+    private void encode(boolean endOfInput) throws IOException
+    {
+        chars.flip();
+        while (true)
+        {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow())
+            {
+                drain();
+            } else if (result.isError())
+            {
+                result.throwException();
+            } else
+            {
+                break;
+            }
+        }
+        chars.compact();
+    }
+
+    private void drain() throws IOException
+    {
+        bytes.flip();
+        while (bytes.hasRemaining())
+        {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
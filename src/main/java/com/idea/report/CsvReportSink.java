@@ -0,0 +1,118 @@
+package com.idea.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * @ClassName: CsvReportSink
+ * @Description: CSV格式的报表输出（RFC 4180） <br>
+ *  所有Sheet写入同一个文件，第一列为Sheet名称；表头只在列定义变化时重新输出
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public class CsvReportSink extends AbstractTextReportSink
+{
+    // 上一次输出的表头，用于判断是否需要重新输出
+    private String[] lastHeaders;
+
+    public CsvReportSink(Path outputFile) throws IOException
+    {
+        super(outputFile);
+    }
+
+    /**
+     * 直接写入输出流，不使用临时文件
+     */
+    public CsvReportSink(OutputStream out)
+    {
+        super(out);
+    }
+
+    @Override
+    public void startSheet(String sheetName, ReportColumn[] columns) throws IOException
+    {
+        super.startSheet(sheetName, columns);
+        String[] headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++)
+        {
+            headers[i] = columns[i].getHeader();
+        }
+        if (!Arrays.equals(headers, lastHeaders))
+        {
+            writer.append("Sheet");
+            for (String header : headers)
+            {
+                writer.append(',');
+                writeEscaped(header);
+            }
+            writer.append("\r\n");
+            lastHeaders = headers;
+        }
+    }
+
+    @Override
+    public void startRow() throws IOException
+    {
+        super.startRow();
+        writeEscaped(sheetName);
+    }
+
+    @Override
+    public void cell(String value) throws IOException
+    {
+        writer.append(',');
+        if (value != null)
+        {
+            writeEscaped(value);
+        }
+        colNum++;
+    }
+
+    @Override
+    public void cell(long value) throws IOException
+    {
+        writer.append(',').append(value);
+        colNum++;
+    }
+
+    @Override
+    public void endRow() throws IOException
+    {
+        writer.append("\r\n");
+    }
+
+    /**
+     * 包含逗号、引号或换行时用双引号包裹，内部的双引号写两次
+     */
+    private void writeEscaped(String value) throws IOException
+    {
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r')
+            {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote)
+        {
+            writer.append(value);
+            return;
+        }
+        writer.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"')
+            {
+                writer.append('"');
+            }
+            writer.append(c);
+        }
+        writer.append('"');
+    }
+}
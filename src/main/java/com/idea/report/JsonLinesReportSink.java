@@ -0,0 +1,113 @@
+package com.idea.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * @ClassName: JsonLinesReportSink
+ * @Description: JSON Lines格式的报表输出 <br>
+ *  每行一个JSON对象，sheet字段为Sheet名称，其余字段名为列的表头，例如：
+ *  {"sheet":"生产执行","序号":1,"功能名":"查询","请求URL":"...","请求Form-Data":"..."}
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public class JsonLinesReportSink extends AbstractTextReportSink
+{
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public JsonLinesReportSink(Path outputFile) throws IOException
+    {
+        super(outputFile);
+    }
+
+    /**
+     * 直接写入输出流，不使用临时文件
+     */
+    public JsonLinesReportSink(OutputStream out)
+    {
+        super(out);
+    }
+
+    @Override
+    public void startRow() throws IOException
+    {
+        super.startRow();
+        writer.append("{\"sheet\":");
+        writeString(sheetName);
+    }
+
+    @Override
+    public void cell(String value) throws IOException
+    {
+        writeFieldName();
+        if (value == null)
+        {
+            writer.append("null");
+        } else
+        {
+            writeString(value);
+        }
+    }
+
+    @Override
+    public void cell(long value) throws IOException
+    {
+        writeFieldName();
+        writer.append(value);
+    }
+
+    @Override
+    public void endRow() throws IOException
+    {
+        writer.append("}\n");
+    }
+
+    private void writeFieldName() throws IOException
+    {
+        int col = colNum++;
+        writer.append(',');
+        writeString(col < columns.length ? columns[col].getHeader() : "column" + col);
+        writer.append(':');
+    }
+
+    /**
+     * 输出JSON字符串，转义引号、反斜杠和控制字符
+     */
+    private void writeString(String value) throws IOException
+    {
+        writer.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    writer.append("\\\"");
+                    break;
+                case '\\':
+                    writer.append("\\\\");
+                    break;
+                case '\n':
+                    writer.append("\\n");
+                    break;
+                case '\r':
+                    writer.append("\\r");
+                    break;
+                case '\t':
+                    writer.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        writer.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else
+                    {
+                        writer.append(c);
+                    }
+                    break;
+            }
+        }
+        writer.append('"');
+    }
+}
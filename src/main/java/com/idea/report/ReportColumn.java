@@ -0,0 +1,40 @@
+package com.idea.report;
+
+/**
+ * @ClassName: ReportColumn
+ * @Description: 报表列定义：表头、列宽和数据单元格是否自动换行 <br>
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public class ReportColumn
+{
+    private final String header;
+
+    // 列宽（字符数），仅XLSX使用
+    private final int width;
+
+    // 数据单元格是否自动换行，仅XLSX使用
+    private final boolean wrap;
+
+    public ReportColumn(String header, int width, boolean wrap)
+    {
+        this.header = header;
+        this.width = width;
+        this.wrap = wrap;
+    }
+
+    public String getHeader()
+    {
+        return header;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public boolean isWrap()
+    {
+        return wrap;
+    }
+}
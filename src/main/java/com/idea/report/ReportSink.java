@@ -0,0 +1,49 @@
+package com.idea.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @ClassName: ReportSink
+ * @Description: 报表输出接口，屏蔽具体的输出格式（XLSX、CSV、JSON Lines） <br>
+ *  调用顺序：startSheet → (startRow → cell... → endRow)... → 下一个startSheet ... → finish → close
+ *  按单元格逐个写入，不需要为每行构造数组或Map。
+ *  finish()之前输出写在临时文件中，finish()后才原子替换为目标文件；未调用finish()直接close()时丢弃临时文件
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public interface ReportSink extends Closeable
+{
+    /**
+     * 开始一个新的Sheet（文本格式中为一个分组），并写入表头
+     *
+     * @param sheetName Sheet名称
+     * @param columns 列定义
+     */
+    void startSheet(String sheetName, ReportColumn[] columns) throws IOException;
+
+    /**
+     * 开始新的一行
+     */
+    void startRow() throws IOException;
+
+    /**
+     * 写入当前行的下一个文本单元格，null表示空单元格
+     */
+    void cell(String value) throws IOException;
+
+    /**
+     * 写入当前行的下一个数字单元格
+     */
+    void cell(long value) throws IOException;
+
+    /**
+     * 结束当前行
+     */
+    void endRow() throws IOException;
+
+    /**
+     * 全部写入完成，发布输出文件
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,138 @@
+package com.idea.report;
+
+import com.idea.excel.ExcelWorkbookFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * @ClassName: ReportSinks
+ * @Description: 报表输出的创建工具 <br>
+ *  支持的格式：xlsx（默认）、csv、jsonl
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public class ReportSinks
+{
+    private ReportSinks()
+    {
+    }
+
+    /**
+     * @MethodName: create
+     * @Description: 按格式创建报表输出
+     * @param format 输出格式：xlsx、csv、jsonl
+     * @param baseName 输出文件路径（不含扩展名），实际文件为 baseName + "." + format
+     * @param workbookFactory XLSX格式使用的工作簿工厂
+     * @param expectedRows 预估的总行数，XLSX格式据此选择是否流式输出
+     * @Return ReportSink
+     **/
+    public static ReportSink create(String format, Path baseName, ExcelWorkbookFactory workbookFactory, long expectedRows) throws IOException
+    {
+        Path outputFile = outputFile(format, baseName);
+        switch (format)
+        {
+            case "xlsx":
+                return new XlsxReportSink(workbookFactory.create(expectedRows), outputFile);
+            case "csv":
+                return new CsvReportSink(outputFile);
+            case "jsonl":
+                return new JsonLinesReportSink(outputFile);
+            default:
+                throw new IllegalArgumentException("不支持的输出格式: " + format + "，可选值为 xlsx、csv、jsonl");
+        }
+    }
+
+    /**
+     * @MethodName: create
+     * @Description: 按格式创建写入输出流的报表输出，不使用临时文件；文本格式边生成边写出，XLSX格式在finish()时写出
+     * @param format 输出格式：xlsx、csv、jsonl
+     * @param out 输出流
+     * @param workbookFactory XLSX格式使用的工作簿工厂
+     * @param expectedRows 预估的总行数，XLSX格式据此选择是否流式输出
+     * @Return ReportSink
+     **/
+    public static ReportSink create(String format, OutputStream out, ExcelWorkbookFactory workbookFactory, long expectedRows)
+    {
+        switch (format)
+        {
+            case "xlsx":
+                return new XlsxReportSink(workbookFactory.create(expectedRows), out);
+            case "csv":
+                return new CsvReportSink(out);
+            case "jsonl":
+                return new JsonLinesReportSink(out);
+            default:
+                throw new IllegalArgumentException("不支持的输出格式: " + format + "，可选值为 xlsx、csv、jsonl");
+        }
+    }
+
+    /**
+     * @MethodName: outputFile
+     * @Description: 输出文件路径
+     * @param format 输出格式
+     * @param baseName 输出文件路径（不含扩展名）
+     * @Return Path
+     **/
+    public static Path outputFile(String format, Path baseName)
+    {
+        return baseName.resolveSibling(baseName.getFileName() + "." + format);
+    }
+
+    /**
+     * @MethodName: publishCopy
+     * @Description: 将已生成的报表发布到另一个位置：先在目标目录中创建硬链接（不支持时复制）作为临时文件，再原子替换目标文件
+     * @param source 已生成的文件
+     * @param outputFile 目标文件
+     * @Return void
+     **/
+    public static void publishCopy(Path source, Path outputFile) throws IOException
+    {
+        if (Files.exists(outputFile) && Files.isSameFile(source, outputFile))
+        {
+            return;
+        }
+        Path tmpFile = createTempFile(outputFile);
+        try
+        {
+            Files.delete(tmpFile); // 只用于占用唯一的文件名
+            try
+            {
+                Files.createLink(tmpFile, source);
+            } catch (IOException | UnsupportedOperationException e)
+            {
+                Files.copy(source, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            publish(tmpFile, outputFile);
+        } finally
+        {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * 在目标文件所在目录创建临时文件，保证后续可以原子替换
+     */
+    static Path createTempFile(Path outputFile) throws IOException
+    {
+        return Files.createTempFile(outputFile.toAbsolutePath().getParent(), outputFile.getFileName().toString(), ".tmp");
+    }
+
+    /**
+     * 用临时文件原子替换目标文件，文件系统不支持原子移动时退化为普通替换
+     */
+    static void publish(Path tmpFile, Path outputFile) throws IOException
+    {
+        try
+        {
+            Files.move(tmpFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tmpFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.idea.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @ClassName: SpooledReportSink
+ * @Description: 暂存到临时文件的报表输出 <br>
+ *  按调用顺序把Sheet、行和单元格记录到临时文件中，之后通过replayTo按原顺序写入目标输出。
+ *  用于在目标输出被占用时（如另一个Sheet正在写入）并发生成Sheet内容，内存占用与行数无关。
+ *  finish()结束记录，close()删除临时文件
+ * @Author: yuanbao
+ * @Date: 2025/4/10
+ **/
+public class SpooledReportSink implements ReportSink
+{
+    private static final byte START_SHEET = 1;
+
+    private static final byte START_ROW = 2;
+
+    private static final byte CELL_STRING = 3;
+
+    private static final byte CELL_NULL = 4;
+
+    private static final byte CELL_LONG = 5;
+
+    private static final byte END_ROW = 6;
+
+    private static final byte END = 7;
+
+    private final Path spoolFile;
+
+    private final DataOutputStream out;
+
+    private boolean finished;
+
+    public SpooledReportSink() throws IOException
+    {
+        this.spoolFile = Files.createTempFile("report-spool", ".bin");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spoolFile), 64 * 1024));
+    }
+
+    @Override
+    public void startSheet(String sheetName, ReportColumn[] columns) throws IOException
+    {
+        out.writeByte(START_SHEET);
+        writeString(sheetName);
+        out.writeInt(columns.length);
+        for (ReportColumn column : columns)
+        {
+            writeString(column.getHeader());
+            out.writeInt(column.getWidth());
+            out.writeBoolean(column.isWrap());
+        }
+    }
+
+    @Override
+    public void startRow() throws IOException
+    {
+        out.writeByte(START_ROW);
+    }
+
+    @Override
+    public void cell(String value) throws IOException
+    {
+        if (value == null)
+        {
+            out.writeByte(CELL_NULL);
+            return;
+        }
+        out.writeByte(CELL_STRING);
+        writeString(value);
+    }
+
+    @Override
+    public void cell(long value) throws IOException
+    {
+        out.writeByte(CELL_LONG);
+        out.writeLong(value);
+    }
+
+    @Override
+    public void endRow() throws IOException
+    {
+        out.writeByte(END_ROW);
+    }
+
+    /**
+     * 结束记录，之后才能replayTo
+     */
+    @Override
+    public void finish() throws IOException
+    {
+        out.writeByte(END);
+        out.close();
+        finished = true;
+    }
+
+    /**
+     * @MethodName: replayTo
+     * @Description: 将记录的内容按原顺序写入目标输出（不调用目标的finish）
+     * @param target 目标输出
+     * @Return void
+     **/
+    public void replayTo(ReportSink target) throws IOException
+    {
+        if (!finished)
+        {
+            throw new IllegalStateException("暂存的报表尚未finish");
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spoolFile), 64 * 1024)))
+        {
+            byte op;
+            while ((op = in.readByte()) != END)
+            {
+                switch (op)
+                {
+                    case START_SHEET:
+                        String sheetName = readString(in);
+                        ReportColumn[] columns = new ReportColumn[in.readInt()];
+                        for (int i = 0; i < columns.length; i++)
+                        {
+                            columns[i] = new ReportColumn(readString(in), in.readInt(), in.readBoolean());
+                        }
+                        target.startSheet(sheetName, columns);
+                        break;
+                    case START_ROW:
+                        target.startRow();
+                        break;
+                    case CELL_STRING:
+                        target.cell(readString(in));
+                        break;
+                    case CELL_NULL:
+                        target.cell((String) null);
+                        break;
+                    case CELL_LONG:
+                        target.cell(in.readLong());
+                        break;
+                    case END_ROW:
+                        target.endRow();
+                        break;
+                    default:
+                        throw new IOException("暂存文件已损坏：" + spoolFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除临时文件
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            out.close();
+        } finally
+        {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    private void writeString(String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,159 @@
+package com.idea.report;
+
+import com.idea.excel.CellStyleRegistry;
+import com.idea.excel.ExcelWorkbookFactory;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @ClassName: XlsxReportSink
+ * @Description: XLSX格式的报表输出，每个startSheet对应一个Sheet <br>
+ *  表头单元格均自动换行、垂直居中，数据单元格按列定义决定是否自动换行，样式由CellStyleRegistry统一复用。
+ *  输出到流时finish()直接将工作簿写入该流，不经过临时文件
+ * @Author: yuanbao
+ * @Date: 2025/3/26
+ **/
+public class XlsxReportSink implements ReportSink
+{
+    private final Workbook workbook;
+
+    private final Path outputFile;
+
+    private final OutputStream out;
+
+    private final CellStyleRegistry styles;
+
+    // 自动换行、垂直居中的样式，表头和需要换行的数据列共用
+    private final CellStyle wrapStyle;
+
+    private Sheet sheet;
+
+    private ReportColumn[] columns;
+
+    private Row row;
+
+    private int rowNum;
+
+    private int colNum;
+
+    public XlsxReportSink(Workbook workbook, Path outputFile)
+    {
+        this(workbook, outputFile, null);
+    }
+
+    /**
+     * 写入输出流，finish()时输出整个工作簿（不关闭流）
+     */
+    public XlsxReportSink(Workbook workbook, OutputStream out)
+    {
+        this(workbook, null, out);
+    }
+
+    private XlsxReportSink(Workbook workbook, Path outputFile, OutputStream out)
+    {
+        this.workbook = workbook;
+        this.outputFile = outputFile;
+        this.out = out;
+        this.styles = new CellStyleRegistry(workbook);
+        this.wrapStyle = styles.getWrapStyle();
+    }
+
+    public Workbook getWorkbook()
+    {
+        return workbook;
+    }
+
+    @Override
+    public void startSheet(String sheetName, ReportColumn[] columns)
+    {
+        this.sheet = workbook.createSheet(sheetName);
+        this.columns = columns;
+        this.rowNum = 0;
+
+        // 表头行
+        Row headerRow = sheet.createRow(rowNum++);
+        for (int i = 0; i < columns.length; i++)
+        {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns[i].getHeader());
+            // 设置列宽
+            sheet.setColumnWidth(i, 256 * columns[i].getWidth());
+            // 设置自动换行、垂直居中
+            cell.setCellStyle(wrapStyle);
+        }
+    }
+
+    @Override
+    public void startRow()
+    {
+        row = sheet.createRow(rowNum++);
+        colNum = 0;
+    }
+
+    @Override
+    public void cell(String value)
+    {
+        nextCell().setCellValue(value);
+    }
+
+    @Override
+    public void cell(long value)
+    {
+        nextCell().setCellValue(value);
+    }
+
+    @Override
+    public void endRow()
+    {
+        row = null;
+    }
+
+    @Override
+    public void finish() throws IOException
+    {
+        if (out != null)
+        {
+            workbook.write(out);
+            out.flush();
+            return;
+        }
+        Path tmpFile = ReportSinks.createTempFile(outputFile);
+        try
+        {
+            try (OutputStream os = Files.newOutputStream(tmpFile))
+            {
+                workbook.write(os);
+            }
+            ReportSinks.publish(tmpFile, outputFile);
+        } finally
+        {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        ExcelWorkbookFactory.dispose(workbook); // 删除流式输出的临时文件
+        workbook.close();
+    }
+
+    private Cell nextCell()
+    {
+        int col = colNum++;
+        Cell cell = row.createCell(col);
+        if (col < columns.length && columns[col].isWrap())
+        {
+            cell.setCellStyle(wrapStyle);
+        }
+        return cell;
+    }
+}
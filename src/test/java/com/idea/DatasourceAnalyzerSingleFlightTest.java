@@ -0,0 +1,214 @@
+package com.idea;
+
+import com.idea.export.ExportProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @ClassName: DatasourceAnalyzerSingleFlightTest
+ * @Description: 同一输出格式的并发导出合并为一次查询：等待方得到相同内容的文件、共享失败结果；
+ *  发起方被取消时，等待方重新发起导出。使用MySQL模式的H2内存库，行数统计查询被阻塞直到所有调用都已发起
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class DatasourceAnalyzerSingleFlightTest
+{
+    private static final int ROWS = 300;
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private GatedJdbcTemplate jdbcTemplate;
+
+    private DatasourceAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp()
+    {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:single-flight-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new GatedJdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table eh_dynamic_grid_config(id bigint auto_increment primary key, table_title varchar(200),"
+                + " data_source longtext, grid longtext, options longtext, is_delete int default 0, search_type varchar(20))");
+        for (int i = 0; i < ROWS; i++)
+        {
+            boolean sqlType = i % 3 == 0;
+            jdbcTemplate.update("insert into eh_dynamic_grid_config(table_title,data_source,grid,options,is_delete,search_type)"
+                            + " values(?,?,?,?,0,?)", "页面" + i,
+                    "{\"bean\":\"module" + i + "Bean\",\"method\":\"selectList\",\"params\":{\"type\":\"" + i + "\"}}",
+                    "{\"columns\":[{\"prop\":\"code\",\"refName\":\"编码\"},{\"prop\":\"hidden\",\"pass\":true}],"
+                            + "\"defaultSort\":{\"prop\":\"code\",\"order\":\"desc\"}}",
+                    sqlType ? "{\"extraParamFields\":\"{\\\"queryString\\\":\\\"select " + i + "\\\"}\"}" : null,
+                    sqlType ? "sql" : "common");
+        }
+
+        analyzer = new DatasourceAnalyzer();
+        setField("jdbcTemplate", jdbcTemplate);
+        setField("meterRegistry", meterRegistry);
+        setField("outputFormat", "jsonl");
+        setField("fetchSize", 100);
+        setField("pipelineWorkers", 2);
+        analyzer.initGridMemo();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        jdbcTemplate.open();
+        callers.shutdownNow();
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void concurrentExportsShareOneQuery() throws Exception
+    {
+        int count = 4;
+        List<Future<Path>> results = new ArrayList<>();
+        ExportProgress progress = new ExportProgress();
+        results.add(callers.submit(() -> analyzer.export(dir.resolve("out0"), progress)));
+        jdbcTemplate.awaitBlocked();
+        for (int i = 1; i < count; i++)
+        {
+            Path outputDir = dir.resolve("out" + i);
+            results.add(callers.submit(() -> analyzer.export(outputDir, new ExportProgress())));
+        }
+        // 等待其余调用合并到进行中的导出
+        Thread.sleep(300);
+        jdbcTemplate.open();
+
+        byte[] expected = Files.readAllBytes(results.get(0).get(30, TimeUnit.SECONDS));
+        assertEquals(ROWS, Files.readAllLines(results.get(0).get()).size());
+        for (int i = 1; i < count; i++)
+        {
+            Path file = results.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals(dir.resolve("out" + i), file.getParent());
+            assertArrayEquals(expected, Files.readAllBytes(file));
+        }
+        assertEquals(1, exportCount("success"));
+        // 两部分各查询一次，不再单独执行count查询；总行数在读取完成后得到
+        assertEquals(2, jdbcTemplate.queries.get());
+        assertEquals(ROWS, progress.getTotalRows());
+    }
+
+    @Test
+    void failureIsSharedWithWaitingCallers() throws Exception
+    {
+        // sql方式的查询需要options字段
+        jdbcTemplate.execute("alter table eh_dynamic_grid_config drop column options");
+        Future<Path> first = callers.submit(() -> analyzer.export(dir.resolve("out0"), new ExportProgress()));
+        jdbcTemplate.awaitBlocked();
+        Future<Path> second = callers.submit(() -> analyzer.export(dir.resolve("out1"), new ExportProgress()));
+        Thread.sleep(300);
+        jdbcTemplate.open();
+
+        Exception firstError = assertThrows(Exception.class, () -> first.get(30, TimeUnit.SECONDS));
+        Exception secondError = assertThrows(Exception.class, () -> second.get(30, TimeUnit.SECONDS));
+        assertEquals(firstError.getCause().getMessage(), secondError.getCause().getMessage());
+        assertEquals(1, exportCount("error"));
+        assertEquals(0, exportCount("success"));
+    }
+
+    @Test
+    void waitingCallerRetriesWhenInitiatorIsCancelled() throws Exception
+    {
+        ExportProgress initiatorProgress = new ExportProgress();
+        Future<Path> initiator = callers.submit(() -> analyzer.export(dir.resolve("out0"), initiatorProgress));
+        jdbcTemplate.awaitBlocked();
+        Future<Path> follower = callers.submit(() -> analyzer.export(dir.resolve("out1"), new ExportProgress()));
+        Thread.sleep(300);
+        initiatorProgress.cancel();
+        jdbcTemplate.open();
+
+        Exception error = assertThrows(Exception.class, () -> initiator.get(30, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof InterruptedIOException, String.valueOf(error.getCause()));
+        Path file = follower.get(30, TimeUnit.SECONDS);
+        assertEquals(ROWS, Files.readAllLines(file).size());
+        assertEquals(1, exportCount("cancelled"));
+        assertEquals(1, exportCount("success"));
+    }
+
+    private long exportCount(String outcome)
+    {
+        return meterRegistry.timer("export.duration", "format", "jsonl", "outcome", outcome).count();
+    }
+
+    private void setField(String name, Object value)
+    {
+        Field field = ReflectionUtils.findField(DatasourceAnalyzer.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, analyzer, value);
+    }
+
+    /**
+     * 导出的查询在open之前阻塞，并统计查询次数
+     */
+    private static final class GatedJdbcTemplate extends JdbcTemplate
+    {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        private final AtomicInteger queries = new AtomicInteger();
+
+        GatedJdbcTemplate(DriverManagerDataSource dataSource)
+        {
+            super(dataSource);
+        }
+
+        @Override
+        public void query(PreparedStatementCreator psc, RowCallbackHandler rch)
+        {
+            queries.incrementAndGet();
+            blocked.countDown();
+            try
+            {
+                gate.await();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            super.query(psc, rch);
+        }
+
+        void awaitBlocked() throws InterruptedException
+        {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS), "导出未开始");
+        }
+
+        void open()
+        {
+            gate.countDown();
+        }
+    }
+}
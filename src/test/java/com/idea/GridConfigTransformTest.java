@@ -0,0 +1,390 @@
+package com.idea;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ObjectUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @ClassName: GridConfigTransformTest
+ * @Description: transformRow、transformRow2（GridConfigExtractor单次顺序读取）与原先基于fastjson的 <br>
+ *  transformData、transformData2、extractGridInfo结果一致。fastjson的JSONObject不保持字段顺序，
+ *  因此data_source、grid按JSON语义比较，url中的查询参数按集合比较
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class GridConfigTransformTest
+{
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // 字符串取值，含需要转义的字符和中文
+    private static final String[] TEXTS = { "a", "订单号", "x\"y", "c:\\dir", "line\nbreak", "", " ", "\u00e9\uD83D\uDE00" };
+
+    private final DatasourceAnalyzer analyzer = new DatasourceAnalyzer();
+
+    @BeforeEach
+    void setUp()
+    {
+        analyzer.initGridMemo();
+    }
+
+    @Test
+    void edgeCasesMatchFastjson() throws IOException
+    {
+        String grid = "{\"columns\":[{\"label\":\"单号\",\"prop\":\"code\",\"refEntity\":\"order\",\"refName\":\"\"},"
+                + "{\"prop\":\"hidden\",\"pass\":true},{\"prop\":\"shown\",\"pass\":false},{\"prop\":\"s\",\"pass\":\"true\"},"
+                + "{\"label\":\"无prop\"},{\"prop\":\"n\",\"refName\":\"名称\",\"width\":120}],"
+                + "\"defaultSort\":{\"prop\":\"code\",\"order\":\"desc\"},\"stripe\":true}";
+        List<String> dataSources = Arrays.asList(
+                "{\"bean\":\"orderBean\",\"method\":\"selectList\",\"params\":{\"type\":\"1\",\"page\":2,\"flag\":true}}",
+                "{\"bean\":\"orderBean\",\"method\":\"selectList\",\"params\":{}}",
+                "{\"bean\":\"orderBean\",\"method\":\"selectList\",\"params\":null}",
+                "{\"bean\":\"orderBean\",\"method\":\"selectList\",\"params\":\"{\\\"type\\\":\\\"2\\\"}\"}",
+                "{\"bean\":\"orderBean\",\"params\":{\"type\":\"1\"}}",
+                "{\"method\":\"selectList\",\"columns\":[{\"name\":\"old\"}],\"sidx\":\"old\"}",
+                "{\"bean\":\"a\",\"method\":\"b\",\"queryString\":\"select 0\",\"nested\":{\"k\":[1,2,{\"x\":null}]}}",
+                "{}");
+        List<String> grids = Arrays.asList(grid, null, "", "{}", "{\"columns\":[]}", "{\"columns\":null,\"defaultSort\":null}",
+                "{\"defaultSort\":{\"prop\":\"id\"}}", "{\"defaultSort\":{\"order\":\"asc\"},\"columns\":[{\"prop\":\"id\"}]}",
+                "{\"defaultSort\":{}}");
+        List<String> options = Arrays.asList(null, "", "{}", "{\"showSearch\":true}",
+                "{\"extraParamFields\":\"{}\"}",
+                "{\"extraParamFields\":\"{\\\"queryString\\\":\\\"select * from t where a = \\\\\\\"中文\\\\\\\"\\\"}\"}",
+                "{\"extraParamFields\":\"{\\\"other\\\":1,\\\"queryString\\\":\\\"select 1\\\"}\",\"showSearch\":false}");
+
+        for (String dataSource : dataSources)
+        {
+            for (String g : grids)
+            {
+                assertSameAsFastjson(row(dataSource, g, null), false);
+                for (String o : options)
+                {
+                    assertSameAsFastjson(row(dataSource, g, o), true);
+                }
+            }
+        }
+        // data_source为空时不处理
+        assertSameAsFastjson(row(null, grid, null), false);
+        assertSameAsFastjson(row("", grid, options.get(5)), true);
+    }
+
+    @Test
+    void generatedRowsMatchFastjson() throws IOException
+    {
+        Random random = new Random(13);
+        List<String> recentGrids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+        {
+            // 约三分之一的行复制已有的grid，经过GridConfigMemo的命中路径
+            String grid = !recentGrids.isEmpty() && random.nextInt(3) == 0
+                    ? recentGrids.get(random.nextInt(recentGrids.size())) : grid(random);
+            recentGrids.add(grid);
+            boolean sqlType = random.nextBoolean();
+            assertSameAsFastjson(row(dataSource(random), grid, sqlType ? options(random) : null), sqlType);
+        }
+    }
+
+    private void assertSameAsFastjson(Map<String, Object> row, boolean sqlType) throws IOException
+    {
+        Map<String, Object> expected = new HashMap<>(row);
+        Map<String, Object> actual = new HashMap<>(row);
+        if (sqlType)
+        {
+            referenceTransform2(expected);
+            analyzer.transformRow2(actual);
+        } else
+        {
+            referenceTransform(expected);
+            analyzer.transformRow(actual);
+        }
+        String message = "row=" + row;
+        assertEquals(expected.keySet(), actual.keySet(), message);
+        assertEquals(normalizeUrl((String) expected.get("url")), normalizeUrl((String) actual.get("url")), message);
+        assertEquals(readJson(expected.get("grid")), readJson(actual.get("grid")), message);
+        assertEquals(readJson(expected.get("data_source")), readJson(actual.get("data_source")), message);
+        assertEquals(expected.get("options"), actual.get("options"), message);
+    }
+
+    private static Map<String, Object> row(String dataSource, String grid, String options)
+    {
+        Map<String, Object> row = new HashMap<>();
+        row.put("table_title", "标题");
+        row.put("data_source", dataSource);
+        row.put("grid", grid);
+        row.put("options", options);
+        return row;
+    }
+
+    private static Object readJson(Object value) throws IOException
+    {
+        return value instanceof String && !((String) value).isEmpty() ? mapper.readTree((String) value) : value;
+    }
+
+    /**
+     * url的路径部分原样比较，查询参数按排序后的列表比较
+     */
+    private static String normalizeUrl(String url)
+    {
+        if (url == null || url.indexOf('?') < 0)
+        {
+            return url;
+        }
+        int index = url.indexOf('?');
+        List<String> params = Arrays.asList(url.substring(index + 1).split("&", -1));
+        Collections.sort(params);
+        return url.substring(0, index) + "?" + params;
+    }
+
+    private static String dataSource(Random random)
+    {
+        JSONObject ds = new JSONObject(true);
+        if (random.nextInt(10) > 0)
+        {
+            ds.put("bean", "module" + random.nextInt(50) + "Bean");
+        }
+        if (random.nextInt(10) > 0)
+        {
+            ds.put("method", random.nextBoolean() ? "selectList" : "selectPage");
+        }
+        int paramCase = random.nextInt(4);
+        if (paramCase > 0)
+        {
+            JSONObject params = new JSONObject(true);
+            int count = paramCase == 1 ? 0 : 1 + random.nextInt(4);
+            for (int i = 0; i < count; i++)
+            {
+                params.put("p" + i, random.nextBoolean() ? text(random) : random.nextInt(1000));
+            }
+            ds.put("params", params);
+        }
+        if (random.nextInt(4) == 0)
+        {
+            ds.put("columns", new JSONArray());
+            ds.put("sidx", "old");
+        }
+        ds.put("title", text(random));
+        return ds.toJSONString();
+    }
+
+    private static String grid(Random random)
+    {
+        if (random.nextInt(20) == 0)
+        {
+            return random.nextBoolean() ? null : "";
+        }
+        JSONObject grid = new JSONObject(true);
+        if (random.nextInt(8) > 0)
+        {
+            JSONArray columns = new JSONArray();
+            int count = random.nextInt(12);
+            for (int i = 0; i < count; i++)
+            {
+                JSONObject column = new JSONObject(true);
+                column.put("label", text(random));
+                column.put("prop", "field" + i);
+                if (random.nextInt(4) == 0)
+                {
+                    column.put("refEntity", random.nextBoolean() ? "entity" + i : "");
+                }
+                if (random.nextInt(4) == 0)
+                {
+                    column.put("refName", text(random));
+                }
+                if (random.nextInt(3) == 0)
+                {
+                    column.put("pass", random.nextBoolean());
+                }
+                column.put("width", 80 + random.nextInt(100));
+                columns.add(column);
+            }
+            grid.put("columns", columns);
+        }
+        if (random.nextInt(3) > 0)
+        {
+            JSONObject defaultSort = new JSONObject(true);
+            if (random.nextInt(4) > 0)
+            {
+                defaultSort.put("prop", "field" + random.nextInt(5));
+            }
+            if (random.nextInt(4) > 0)
+            {
+                defaultSort.put("order", random.nextBoolean() ? "asc" : "desc");
+            }
+            grid.put("defaultSort", defaultSort);
+        }
+        grid.put("stripe", random.nextBoolean());
+        grid.put("height", 500);
+        return grid.toJSONString();
+    }
+
+    private static String options(Random random)
+    {
+        if (random.nextInt(10) == 0)
+        {
+            return random.nextBoolean() ? null : "";
+        }
+        JSONObject options = new JSONObject(true);
+        if (random.nextInt(6) > 0)
+        {
+            JSONObject extra = new JSONObject(true);
+            extra.put("pageSize", 20);
+            if (random.nextInt(5) > 0)
+            {
+                extra.put("queryString", "select * from t" + random.nextInt(100) + " where name = '" + text(random) + "'");
+            }
+            options.put("extraParamFields", extra.toJSONString());
+        }
+        options.put("showSearch", true);
+        return options.toJSONString();
+    }
+
+    private static String text(Random random)
+    {
+        return TEXTS[random.nextInt(TEXTS.length)] + TEXTS[random.nextInt(TEXTS.length)];
+    }
+
+    /**
+     * 原先的transformData（单行）
+     */
+    private static void referenceTransform(Map<String, Object> map)
+    {
+        String dataSource = (String) map.get("data_source");
+        String grid = (String) map.get("grid");
+        if (!ObjectUtils.isEmpty(dataSource))
+        {
+            JSONObject objDS = JSONObject.parseObject(dataSource);
+            if (objDS.containsKey("bean") && objDS.containsKey("method"))
+            {
+                String url = objDS.getString("bean") + "!" + objDS.getString("method") + ".m";
+                if (objDS.containsKey("params"))
+                {
+                    JSONObject objParams = objDS.getJSONObject("params");
+                    if (objParams != null)
+                    {
+                        String paramStr = "";
+                        for (String key : objParams.keySet())
+                        {
+                            paramStr += key + "=" + objParams.getString(key) + "&";
+                        }
+                        if (!ObjectUtils.isEmpty(paramStr) && paramStr.endsWith("&"))
+                        {
+                            url += "?" + paramStr.substring(0, paramStr.length() - 1);
+                        }
+                    }
+                }
+                map.put("url", url);
+            }
+            JSONObject objGridNew = referenceExtractGridInfo(grid, objDS);
+            map.put("grid", objGridNew.toJSONString());
+            map.put("data_source", objDS.toJSONString());
+        }
+    }
+
+    /**
+     * 原先的transformData2（单行）
+     */
+    private static void referenceTransform2(Map<String, Object> map)
+    {
+        String dataSource = (String) map.get("data_source");
+        String options = (String) map.get("options");
+        String grid = (String) map.get("grid");
+        if (!ObjectUtils.isEmpty(dataSource))
+        {
+            JSONObject objDS = JSONObject.parseObject(dataSource);
+            if (objDS.containsKey("bean") && objDS.containsKey("method"))
+            {
+                map.put("url", objDS.getString("bean") + "!" + objDS.getString("method") + ".m");
+            }
+            if (!ObjectUtils.isEmpty(options))
+            {
+                JSONObject objOptions = JSONObject.parseObject(options);
+                if (objOptions.containsKey("extraParamFields"))
+                {
+                    JSONObject objExtraParamFields = JSONObject.parseObject(objOptions.getString("extraParamFields"));
+                    if (objExtraParamFields.containsKey("queryString"))
+                    {
+                        objDS.put("queryString", objExtraParamFields.getString("queryString"));
+                    }
+                }
+            }
+            JSONObject objGridNew = referenceExtractGridInfo(grid, objDS);
+            map.put("grid", objGridNew.toJSONString());
+            map.put("data_source", objDS.toJSONString());
+        }
+    }
+
+    /**
+     * 原先的extractGridInfo
+     */
+    private static JSONObject referenceExtractGridInfo(String grid, JSONObject objDS)
+    {
+        JSONObject objGridNew = new JSONObject();
+        if (!ObjectUtils.isEmpty(grid))
+        {
+            JSONObject jsonObject = JSONObject.parseObject(grid);
+            if (jsonObject.containsKey("columns"))
+            {
+                String columns = jsonObject.getString("columns");
+                if (!ObjectUtils.isEmpty(columns))
+                {
+                    JSONArray jsonArray = JSONArray.parseArray(columns);
+                    JSONArray jsonArrayNew = new JSONArray();
+                    for (int i = 0; i < jsonArray.size(); i++)
+                    {
+                        JSONObject column = jsonArray.getJSONObject(i);
+                        if (column.containsKey("pass") && column.getBoolean("pass"))
+                        {
+                            continue;
+                        }
+                        JSONObject objNew = new JSONObject();
+                        objNew.put("name", column.getString("prop"));
+                        String refEntity = column.getString("refEntity");
+                        String refName = column.getString("refName");
+                        if (!ObjectUtils.isEmpty(refEntity))
+                        {
+                            objNew.put("refEntity", refEntity);
+                        }
+                        if (!ObjectUtils.isEmpty(refName))
+                        {
+                            objNew.put("refName", refName);
+                        }
+                        jsonArrayNew.add(objNew);
+                    }
+                    objGridNew.put("columns", jsonArrayNew);
+                    objDS.put("columns", jsonArrayNew);
+                }
+            }
+            if (jsonObject.containsKey("defaultSort"))
+            {
+                String defaultSort = jsonObject.getString("defaultSort");
+                if (!ObjectUtils.isEmpty(defaultSort))
+                {
+                    JSONObject objDefaultSort = JSONObject.parseObject(defaultSort);
+                    objGridNew.put("defaultSort", objDefaultSort);
+                    if (objDefaultSort.containsKey("prop"))
+                    {
+                        objDS.put("sidx", objDefaultSort.getString("prop"));
+                    }
+                    if (objDefaultSort.containsKey("order"))
+                    {
+                        objDS.put("sord", objDefaultSort.getString("order"));
+                    }
+                }
+            }
+        }
+        return objGridNew;
+    }
+}
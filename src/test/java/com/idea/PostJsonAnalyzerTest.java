@@ -0,0 +1,86 @@
+package com.idea;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @ClassName: PostJsonAnalyzerTest
+ * @Description: 格式错误或被截断的集合文件不生成Sheet，串行、并行、树解析和缓存模式的输出一致
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class PostJsonAnalyzerTest
+{
+    private static final String REQUEST = "{\"name\":\"查询\",\"request\":{\"url\":\"{{url}}/a!selectList.m\","
+            + "\"body\":{\"formdata\":[{\"key\":\"page\",\"value\":\"1\"}]}}}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void malformedFilesProduceNoSheet() throws Exception
+    {
+        write("V1-正常.postman_collection.json", "{\"item\":[" + REQUEST + "," + REQUEST + "]}");
+        // 被截断：流式解析在报错前已读到完整的请求
+        write("V1-截断.postman_collection.json", "{\"item\":[" + REQUEST + "," + REQUEST);
+        write("V1-格式错误.postman_collection.json", "{\"item\":[" + REQUEST + "]]}");
+        write("V1-末尾.postman_collection.json", "{\"item\":[" + REQUEST + "]}");
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("末尾", 2);
+        expected.put("正常", 3);
+
+        // 启用缓存后静态配置不会恢复，缓存模式放在最后
+        String[][] modes = {
+                { "--parser=stream", "--threads=1" },
+                { "--parser=tree", "--threads=1" },
+                { "--parser=stream", "--threads=2" },
+                { "--parser=tree", "--threads=2" },
+                { "--parser=stream", "--threads=1", "--cache-dir=" + dir.resolve("cache") },
+                { "--parser=stream", "--threads=1", "--cache-dir=" + dir.resolve("cache") }
+        };
+        for (String[] mode : modes)
+        {
+            String[] args = new String[mode.length + 2];
+            args[0] = dir.toString();
+            args[1] = "--format=xlsx";
+            System.arraycopy(mode, 0, args, 2, mode.length);
+            PostJsonAnalyzer.main(args);
+            assertEquals(expected, sheets(dir.resolve("output.xlsx")), String.join(" ", mode));
+        }
+    }
+
+    /**
+     * 按顺序读取各Sheet的名称和行数（含表头）
+     */
+    private static Map<String, Integer> sheets(Path xlsx) throws IOException
+    {
+        Map<String, Integer> sheets = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(xlsx); Workbook workbook = new XSSFWorkbook(in))
+        {
+            for (Sheet sheet : workbook)
+            {
+                sheets.put(sheet.getSheetName(), sheet.getPhysicalNumberOfRows());
+            }
+        }
+        return sheets;
+    }
+
+    private void write(String name, String json) throws IOException
+    {
+        Files.write(dir.resolve(name), json.getBytes(StandardCharsets.UTF_8));
+    }
+}
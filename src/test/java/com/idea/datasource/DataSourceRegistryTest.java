@@ -0,0 +1,64 @@
+package com.idea.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @ClassName: DataSourceRegistryTest
+ * @Description: DataSourceRegistry的连接池在第一次获取连接时创建，指定用户名和密码时交给Druid判断
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class DataSourceRegistryTest
+{
+    private final DataSourceRegistry registry = new DataSourceRegistry(properties());
+
+    @AfterEach
+    void tearDown()
+    {
+        registry.close();
+    }
+
+    @Test
+    void poolIsCreatedOnFirstConnection() throws Exception
+    {
+        DataSource dataSource = registry.dataSource("h2");
+        assertTrue(registry.openPools().isEmpty());
+        try (Connection connection = dataSource.getConnection())
+        {
+            assertTrue(connection.isValid(1));
+        }
+        assertEquals(1, registry.openPools().size());
+    }
+
+    @Test
+    void credentialsAreDelegatedToThePool() throws Exception
+    {
+        DataSource dataSource = registry.dataSource("h2");
+        try (Connection connection = dataSource.getConnection("sa", ""))
+        {
+            assertTrue(connection.isValid(1));
+        }
+        // 与连接池不同的用户名由Druid拒绝
+        assertThrows(UnsupportedOperationException.class, () -> dataSource.getConnection("other", "secret"));
+        assertEquals(1, registry.openPools().size());
+    }
+
+    private static DataSourceRegistryProperties properties()
+    {
+        DataSourceRegistryProperties.Source source = new DataSourceRegistryProperties.Source();
+        source.setUrl("jdbc:h2:mem:registry;DB_CLOSE_DELAY=-1");
+        source.setUsername("sa");
+        source.setPassword("");
+        DataSourceRegistryProperties properties = new DataSourceRegistryProperties();
+        properties.getSources().put("h2", source);
+        return properties;
+    }
+}
@@ -0,0 +1,180 @@
+package com.idea.export;
+
+import com.idea.DatasourceAnalyzer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @ClassName: ExportResultCacheTest
+ * @Description: ExportResultCache同一指纹的并发未命中只导出一次、仍在使用的文件不被删除、启动时清除遗留目录、弱ETag比较
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class ExportResultCacheTest
+{
+    private static final String FINGERPRINT = "0123456789abcdef0123456789abcdef";
+
+    @TempDir
+    Path dir;
+
+    private final DatasourceAnalyzer datasourceAnalyzer = mock(DatasourceAnalyzer.class);
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final AtomicInteger exports = new AtomicInteger();
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private ExportResultCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        cache = new ExportResultCache();
+        setField("datasourceAnalyzer", datasourceAnalyzer);
+        setField("cacheDir", dir.resolve("cache").toString());
+        // 导出在gate打开前阻塞，每次生成内容不同的文件
+        doAnswer(invocation -> {
+            int index = exports.incrementAndGet();
+            gate.await();
+            Path outputDir = invocation.getArgument(0);
+            return Files.write(outputDir.resolve("V55_EH_GRID_OUTPUT.jsonl"), ("export " + index).getBytes(StandardCharsets.UTF_8));
+        }).when(datasourceAnalyzer).export(any(), any());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesExportOnce() throws Exception
+    {
+        List<Future<ExportResultCache.Entry>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            results.add(callers.submit(() -> cache.get(FINGERPRINT, new ExportProgress())));
+        }
+        Thread.sleep(300);
+        gate.countDown();
+
+        ExportResultCache.Entry entry = results.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<ExportResultCache.Entry> result : results)
+        {
+            assertSame(entry, result.get(10, TimeUnit.SECONDS));
+            cache.release(entry);
+        }
+        assertEquals(1, exports.get());
+        assertTrue(Files.exists(entry.getFile()));
+
+        // 再次获取命中缓存
+        assertSame(entry, cache.peek(FINGERPRINT));
+        cache.release(entry);
+        assertEquals(1, exports.get());
+    }
+
+    @Test
+    void failureIsSharedAndNotCached() throws Exception
+    {
+        doAnswer(invocation -> {
+            exports.incrementAndGet();
+            gate.await();
+            throw new IOException("查询失败");
+        }).when(datasourceAnalyzer).export(any(), any());
+        Future<ExportResultCache.Entry> first = callers.submit(() -> cache.get(FINGERPRINT, new ExportProgress()));
+        Future<ExportResultCache.Entry> second = callers.submit(() -> cache.get(FINGERPRINT, new ExportProgress()));
+        Thread.sleep(300);
+        gate.countDown();
+
+        assertThrows(Exception.class, () -> first.get(10, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, exports.get());
+        assertNull(cache.peek(FINGERPRINT));
+        assertThrows(IOException.class, () -> cache.get(FINGERPRINT, new ExportProgress()));
+        assertEquals(2, exports.get());
+    }
+
+    @Test
+    void evictedEntryIsDeletedOnlyAfterRelease() throws Exception
+    {
+        gate.countDown();
+        ExportResultCache.Entry old = cache.get(FINGERPRINT, new ExportProgress());
+
+        // 条目过期后重新导出，旧文件仍在使用，不能删除
+        setField("ttl", Duration.ZERO);
+        Thread.sleep(5);
+        ExportResultCache.Entry renewed = cache.get(FINGERPRINT, new ExportProgress());
+        assertNotEquals(old.getFile(), renewed.getFile());
+        assertTrue(Files.exists(old.getFile()));
+        assertEquals("export 1", new String(Files.readAllBytes(old.getFile()), StandardCharsets.UTF_8));
+
+        cache.release(old);
+        assertFalse(Files.exists(old.getFile()));
+        assertTrue(Files.exists(renewed.getFile()));
+        cache.release(renewed);
+    }
+
+    @Test
+    void initRemovesEntryDirectoriesLeftByPreviousRun() throws IOException
+    {
+        Path cacheDir = Files.createDirectories(dir.resolve("cache"));
+        Path leftover = Files.createDirectories(cacheDir.resolve(FINGERPRINT + "-123"));
+        Files.write(leftover.resolve("V55_EH_GRID_OUTPUT.xlsx"), new byte[] { 1 });
+        Path unrelated = Files.createDirectories(cacheDir.resolve("keep"));
+
+        cache.init();
+
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void etagIsWeakAndComparedWeakly()
+    {
+        assertEquals("W/\"" + FINGERPRINT + "\"", ExportResultCache.etag(FINGERPRINT));
+        assertTrue(ExportResultCache.matches(ExportResultCache.etag(FINGERPRINT), FINGERPRINT));
+        assertTrue(ExportResultCache.matches("\"" + FINGERPRINT + "\"", FINGERPRINT));
+        assertTrue(ExportResultCache.matches("\"other\", W/\"" + FINGERPRINT + "\"", FINGERPRINT));
+        assertTrue(ExportResultCache.matches("*", FINGERPRINT));
+        assertFalse(ExportResultCache.matches(null, FINGERPRINT));
+        assertFalse(ExportResultCache.matches("W/\"other\"", FINGERPRINT));
+        assertFalse(ExportResultCache.matches(FINGERPRINT, FINGERPRINT));
+    }
+
+    private void setField(String name, Object value)
+    {
+        Field field = ReflectionUtils.findField(ExportResultCache.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, cache, value);
+    }
+}
@@ -0,0 +1,124 @@
+package com.idea.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @ClassName: GridConfigMemoTest
+ * @Description: GridConfigMemo的命中计数、LRU淘汰、不缓存模式、哈希冲突和解析失败的处理
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class GridConfigMemoTest
+{
+    private final GridConfigExtractor extractor = new GridConfigExtractor();
+
+    @Test
+    void sameTextIsExtractedOnce()
+    {
+        GridConfigMemo memo = new GridConfigMemo(extractor, 16);
+        String grid = grid("code");
+        GridInfo first = memo.extractGridInfo(grid);
+        // 内容相同的另一个String对象也命中
+        GridInfo second = memo.extractGridInfo(new String(grid.toCharArray()));
+
+        assertSame(first, second);
+        assertEquals(extractor.extractGridInfo(grid).getJson(), first.getJson());
+        assertEquals(1, memo.grids().getHits());
+        assertEquals(1, memo.grids().getMisses());
+        assertEquals(1, memo.grids().size());
+
+        String options = "{\"extraParamFields\":\"{\\\"queryString\\\":\\\"select 1\\\"}\"}";
+        Map<String, String> queryString = memo.extractQueryString(options);
+        assertSame(queryString, memo.extractQueryString(options));
+        assertEquals(extractor.extractQueryString(options), queryString);
+        assertEquals(1, memo.queryStrings().getHits());
+        assertEquals(1, memo.queryStrings().getMisses());
+        // 两类结果分别计数
+        assertEquals(1, memo.grids().getHits());
+    }
+
+    @Test
+    void emptyTextIsNotCached()
+    {
+        GridConfigMemo memo = new GridConfigMemo(extractor, 16);
+        assertEquals("{}", memo.extractGridInfo(null).getJson());
+        assertEquals("{}", memo.extractGridInfo("").getJson());
+        assertEquals(0, memo.extractQueryString(null).size());
+        assertEquals(0, memo.grids().getHits() + memo.grids().getMisses() + memo.queryStrings().getMisses());
+        assertEquals(0, memo.grids().size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted()
+    {
+        GridConfigMemo memo = new GridConfigMemo(extractor, 2);
+        GridInfo a = memo.extractGridInfo(grid("a"));
+        memo.extractGridInfo(grid("b"));
+        // 访问a后b成为最久未使用
+        assertSame(a, memo.extractGridInfo(grid("a")));
+        memo.extractGridInfo(grid("c"));
+
+        assertEquals(2, memo.grids().size());
+        assertSame(a, memo.extractGridInfo(grid("a")));
+        long misses = memo.grids().getMisses();
+        memo.extractGridInfo(grid("b"));
+        assertEquals(misses + 1, memo.grids().getMisses());
+    }
+
+    @Test
+    void disabledMemoAlwaysExtracts()
+    {
+        GridConfigMemo memo = new GridConfigMemo(extractor, 0);
+        String grid = grid("code");
+        GridInfo first = memo.extractGridInfo(grid);
+        GridInfo second = memo.extractGridInfo(grid);
+
+        assertNotSame(first, second);
+        assertEquals(first.getJson(), second.getJson());
+        assertEquals(0, memo.grids().getHits());
+        assertEquals(0, memo.grids().getMisses());
+        assertEquals(0, memo.grids().size());
+    }
+
+    @Test
+    void hashCollisionsReturnTheirOwnResults()
+    {
+        // "Aa"和"BB"的hashCode相同，替换后整个文本的hashCode也相同
+        String first = grid("Aa");
+        String second = grid("BB");
+        assertEquals(first.hashCode(), second.hashCode());
+
+        GridConfigMemo memo = new GridConfigMemo(extractor, 16);
+        assertEquals(extractor.extractGridInfo(first).getJson(), memo.extractGridInfo(first).getJson());
+        assertEquals(extractor.extractGridInfo(second).getJson(), memo.extractGridInfo(second).getJson());
+        assertEquals(extractor.extractGridInfo(first).getJson(), memo.extractGridInfo(first).getJson());
+        assertEquals(2, memo.grids().getMisses());
+        assertEquals(1, memo.grids().getHits());
+    }
+
+    @Test
+    void failedExtractionIsNotCached()
+    {
+        GridConfigMemo memo = new GridConfigMemo(extractor, 16);
+        String invalid = "{\"columns\":[";
+        assertThrows(IllegalArgumentException.class, () -> memo.extractGridInfo(invalid));
+        assertThrows(IllegalArgumentException.class, () -> memo.extractGridInfo(invalid));
+
+        assertEquals(2, memo.grids().getMisses());
+        assertEquals(0, memo.grids().getHits());
+        assertEquals(0, memo.grids().size());
+    }
+
+    private static String grid(String prop)
+    {
+        return "{\"columns\":[{\"label\":\"列\",\"prop\":\"" + prop + "\",\"refName\":\"名称\"},{\"prop\":\"x\",\"pass\":true}],"
+                + "\"defaultSort\":{\"prop\":\"" + prop + "\",\"order\":\"desc\"},\"stripe\":true}";
+    }
+}
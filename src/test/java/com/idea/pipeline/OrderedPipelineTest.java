@@ -0,0 +1,180 @@
+package com.idea.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @ClassName: OrderedPipelineTest
+ * @Description: OrderedPipeline按提交顺序写出、转换和写出的异常传递给提交方、队列满时阻塞提交
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class OrderedPipelineTest
+{
+    private final ExecutorService workers = OrderedPipeline.newWorkerPool(8, "test-transform");
+
+    @AfterEach
+    void shutdown()
+    {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void writesInSubmitOrder() throws IOException
+    {
+        int count = 5000;
+        List<String> written = new ArrayList<>();
+        try (OrderedPipeline<Integer, String> pipeline = new OrderedPipeline<>("order", workers, 64, item -> {
+            // 转换耗时不等，完成顺序与提交顺序不同
+            if (ThreadLocalRandom.current().nextInt(10) == 0)
+            {
+                sleep(1);
+            }
+            return "row" + item;
+        }, written::add))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                pipeline.submit(i);
+            }
+            assertEquals(count, pipeline.finish());
+        }
+        assertEquals(count, written.size());
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals("row" + i, written.get(i));
+        }
+    }
+
+    @Test
+    void transformFailureIsRethrownAfterEarlierItemsAreWritten()
+    {
+        IllegalStateException error = new IllegalStateException("第50行转换失败");
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        try (OrderedPipeline<Integer, Integer> pipeline = new OrderedPipeline<>("transform-failure", workers, 16, item -> {
+            if (item == 50)
+            {
+                throw error;
+            }
+            return item;
+        }, written::add))
+        {
+            assertSame(error, assertThrows(IllegalStateException.class, () -> submitAll(pipeline, 100000)));
+        }
+        assertEquals(50, written.size());
+        for (int i = 0; i < 50; i++)
+        {
+            assertEquals(i, written.get(i));
+        }
+    }
+
+    @Test
+    void writerFailureStopsSubmitAndFinish()
+    {
+        IOException error = new IOException("磁盘已满");
+        AtomicInteger written = new AtomicInteger();
+        try (OrderedPipeline<Integer, Integer> pipeline = new OrderedPipeline<>("writer-failure", workers, 16, item -> item, item -> {
+            if (written.incrementAndGet() == 10)
+            {
+                throw error;
+            }
+        }))
+        {
+            // 提交方在写线程出错后停止，而不是提交完全部数据
+            assertSame(error, assertThrows(IOException.class, () -> submitAll(pipeline, Integer.MAX_VALUE)));
+            assertSame(error, assertThrows(IOException.class, () -> pipeline.submit(0)));
+            assertSame(error, assertThrows(IOException.class, pipeline::finish));
+        }
+        assertEquals(10, written.get());
+    }
+
+    @Test
+    void submitBlocksWhenQueueIsFull() throws Exception
+    {
+        int capacity = 4;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Integer> written = new ArrayList<>();
+        try (OrderedPipeline<Integer, Integer> pipeline = new OrderedPipeline<>("backpressure", workers, capacity, item -> item, item -> {
+            awaitQuietly(release);
+            written.add(item);
+        }))
+        {
+            Thread reader = new Thread(() -> {
+                try
+                {
+                    for (int i = 0; i < 100; i++)
+                    {
+                        pipeline.submit(i);
+                        submitted.incrementAndGet();
+                    }
+                    pipeline.finish();
+                } catch (Throwable e)
+                {
+                    failure.set(e);
+                }
+            }, "test-reader");
+            reader.start();
+
+            // 写出被阻塞时，已提交的数据不超过队列容量加上写线程正在写出的一条
+            sleep(300);
+            assertTrue(submitted.get() <= capacity + 1, "submitted=" + submitted.get());
+            assertTrue(reader.isAlive());
+
+            release.countDown();
+            reader.join(TimeUnit.SECONDS.toMillis(10));
+            assertNull(failure.get());
+            assertEquals(100, submitted.get());
+        }
+        assertEquals(100, written.size());
+    }
+
+    private static void submitAll(OrderedPipeline<Integer, ?> pipeline, int count) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            pipeline.submit(i);
+        }
+        pipeline.finish();
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
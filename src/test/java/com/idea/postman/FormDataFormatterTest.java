@@ -0,0 +1,89 @@
+package com.idea.postman;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @ClassName: FormDataFormatterTest
+ * @Description: FormDataFormatter的输出与原先的 <br>
+ *  mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formdata).replace("\\\"", "\"")
+ *  逐字符一致；FormFields的去重、忽略空值与原先的LinkedHashMap处理一致
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class FormDataFormatterTest
+{
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // 需要转义或容易出错的字符：引号、反斜杠、控制字符、DEL、中文、代理对
+    private static final String[] PIECES = {
+            "a", "key", "\"", "\\", "\\\"", "\n", "\r\n", "\t", "\b", "\f", "\u0001", "\u001f", "\u007f", "/", "中文", "\uD83D\uDE00", " ", "{", "}", ":"
+    };
+
+    private final FormDataFormatter formatter = new FormDataFormatter();
+
+    @Test
+    void emptyAndSimpleMapsMatchJackson() throws JsonProcessingException
+    {
+        assertEquals(reference(Collections.<String, String>emptyMap()), formatter.format(Collections.<String, String>emptyMap()));
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("page", "1");
+        map.put("condition", "{\"name\":\"a\",\"path\":\"c:\\\\dir\\\\\"}");
+        map.put("trailing", "ends with \\");
+        map.put("nullValue", null);
+        assertEquals(reference(map), formatter.format(map));
+    }
+
+    @Test
+    void randomMapsAndRecordsMatchJackson() throws JsonProcessingException
+    {
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++)
+        {
+            Map<String, String> expected = new LinkedHashMap<>();
+            RequestRecord.FormFields fields = new RequestRecord.FormFields();
+            int count = random.nextInt(6);
+            for (int j = 0; j < count; j++)
+            {
+                // 键的取值范围较小，保证出现重复的键
+                String key = random.nextInt(4) == 0 ? "k" + random.nextInt(3) : randomText(random, 3);
+                String value = random.nextInt(5) == 0 ? "" : randomText(random, 6);
+                fields.add(key, value);
+                // 原先的处理：值为空时忽略，同名字段覆盖值、保持首次出现的位置
+                if (!value.isEmpty())
+                {
+                    expected.put(key, value);
+                }
+            }
+            RequestRecord record = fields.toRecord("n", "u", "");
+
+            String reference = reference(expected);
+            assertEquals(reference, formatter.format(expected));
+            assertEquals(reference, formatter.format(record));
+        }
+    }
+
+    private static String randomText(Random random, int maxPieces)
+    {
+        StringBuilder text = new StringBuilder();
+        int pieces = random.nextInt(maxPieces + 1);
+        for (int i = 0; i < pieces; i++)
+        {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String reference(Map<String, String> formdata) throws JsonProcessingException
+    {
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formdata).replace("\\\"", "\"");
+    }
+}
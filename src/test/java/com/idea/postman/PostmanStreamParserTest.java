@@ -0,0 +1,186 @@
+package com.idea.postman;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @ClassName: PostmanStreamParserTest
+ * @Description: 流式解析（默认）与树解析（PostmanRequestSpliterator）提取出的请求记录一致，且深层嵌套不会栈溢出
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class PostmanStreamParserTest
+{
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final Predicate<String> FILTER = url -> url.matches(".*!select.*\\.m$");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void edgeCasesMatchTreeParser() throws IOException
+    {
+        String json = "{\"info\":{\"name\":\"c\"},\"item\":["
+                + "{\"name\":\"顶层请求\",\"request\":{\"url\":\"{{url}}/a!selectList.m\",\"body\":{\"mode\":\"formdata\",\"formdata\":["
+                + "{\"key\":\"page\",\"value\":\"1\"},{\"key\":\"rows\",\"value\":\"\"},{\"key\":\"page\",\"value\":\"2\"},"
+                + "{\"key\":\"q\",\"value\":\"{\\\"name\\\":\\\"中文\\\"}\",\"type\":\"text\"}]}},\"response\":[{\"body\":\"x\"}]},"
+                + "{\"name\":\"不匹配\",\"request\":{\"url\":\"{{url}}/a!save.m\"}},"
+                + "{\"name\":\"对象url\",\"request\":{\"url\":{\"raw\":\"{{url}}/a!selectList.m\"}}},"
+                + "{\"name\":\"目录\",\"request\":{\"url\":\"{{url}}/f!selectFolder.m\"},\"item\":["
+                + "  {\"name\":\"子目录\",\"item\":[{\"name\":\"深层\",\"request\":{\"url\":\"{{url}}/b!selectDeep.m\","
+                + "    \"body\":{\"mode\":\"raw\",\"raw\":\"{}\"}}}]},"
+                + "  {\"name\":\"空目录\",\"item\":[]},"
+                + "  {\"name\":\"子请求\",\"request\":{\"url\":\"{{url}}/c!selectChild.m\",\"body\":{\"formdata\":[{\"key\":\"k\",\"value\":\"v\"}]}}}"
+                + "]},"
+                + "{\"name\":\"item不是数组\",\"item\":{}},"
+                + "{\"request\":{\"url\":\"{{url}}/d!selectNoName.m\"}}"
+                + "]}";
+        assertSameRecords(parseStream(write(json)), parseTree(json));
+    }
+
+    @Test
+    void generatedCollectionsMatchTreeParser() throws IOException
+    {
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++)
+        {
+            StringBuilder json = new StringBuilder("{\"item\":");
+            appendItems(json, random, 0);
+            json.append('}');
+            String text = json.toString();
+            assertSameRecords(parseStream(write(text)), parseTree(text));
+        }
+    }
+
+    @Test
+    void deeplyNestedFoldersDoNotOverflowTheStack() throws Exception
+    {
+        int depth = 10000;
+        StringBuilder json = new StringBuilder("{\"item\":[");
+        for (int i = 0; i < depth; i++)
+        {
+            json.append("{\"name\":\"f\",\"item\":[");
+        }
+        json.append("{\"name\":\"r\",\"request\":{\"url\":\"{{url}}/a!selectDeep.m\"}}");
+        for (int i = 0; i < depth; i++)
+        {
+            json.append("]}");
+        }
+        json.append("]}");
+        Path file = write(json.toString());
+
+        // 在较小的线程栈中解析，递归实现会栈溢出
+        AtomicReference<List<RequestRecord>> result = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try
+            {
+                result.set(parseStream(file));
+            } catch (Throwable e)
+            {
+                failure.set(e);
+            }
+        }, "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+
+        assertNull(failure.get());
+        assertEquals(1, result.get().size());
+        assertEquals("r", result.get().get(0).getName());
+        assertEquals(depth * 2 - 1, result.get().get(0).getFolder().length());
+    }
+
+    /**
+     * 随机生成item数组：目录（最多4层）、匹配或不匹配的请求、form-data字段（含重复的键和空值）
+     */
+    private static void appendItems(StringBuilder json, Random random, int depth)
+    {
+        json.append('[');
+        int count = random.nextInt(5);
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+            {
+                json.append(',');
+            }
+            json.append("{\"name\":\"n").append(depth).append('-').append(i).append('"');
+            if (depth < 4 && random.nextInt(3) == 0)
+            {
+                json.append(",\"item\":");
+                appendItems(json, random, depth + 1);
+            } else
+            {
+                json.append(",\"request\":{\"method\":\"POST\",\"url\":\"{{url}}/m")
+                        .append(random.nextInt(3) == 0 ? "!save.m" : "!selectList.m").append("\",\"body\":{\"formdata\":[");
+                int fields = random.nextInt(4);
+                for (int j = 0; j < fields; j++)
+                {
+                    if (j > 0)
+                    {
+                        json.append(',');
+                    }
+                    json.append("{\"key\":\"k").append(random.nextInt(3)).append("\",\"value\":\"")
+                            .append(random.nextInt(4) == 0 ? "" : "v" + j).append("\"}");
+                }
+                json.append("]}},\"response\":[]");
+            }
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    private static List<RequestRecord> parseStream(Path file) throws IOException
+    {
+        List<RequestRecord> records = new ArrayList<>();
+        PostmanStreamParser.parse(file, FILTER, records::add);
+        return records;
+    }
+
+    private static List<RequestRecord> parseTree(String json) throws IOException
+    {
+        JsonNode root = mapper.readTree(json);
+        return PostmanRequestSpliterator.stream(root.path("item"), FILTER, false).collect(Collectors.toList());
+    }
+
+    private Path write(String json) throws IOException
+    {
+        return Files.write(Files.createTempFile(dir, "collection", ".json"), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameRecords(List<RequestRecord> expected, List<RequestRecord> actual)
+    {
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(List<RequestRecord> records)
+    {
+        List<String> lines = new ArrayList<>();
+        for (RequestRecord record : records)
+        {
+            StringBuilder line = new StringBuilder(record.getFolder()).append('|').append(record.getName()).append('|').append(record.getUrl());
+            for (int i = 0; i < record.getFormSize(); i++)
+            {
+                line.append('|').append(record.getFormKey(i)).append('=').append(record.getFormValue(i));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,160 @@
+package com.idea.postman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @ClassName: RecordCacheTest
+ * @Description: RecordCache的写入读取、缓存键、损坏文件和过期清理
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class RecordCacheTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    void storedRecordsAreLoadedUnchanged() throws IOException
+    {
+        RecordCache cache = new RecordCache(dir.resolve("cache"), "rules", "stream");
+        Path jsonFile = write("a.json", "{}");
+        List<RequestRecord> records = Arrays.asList(
+                new RequestRecord("查询列表", "{{url}}/mes/aBean!selectList.m", "生产/计划",
+                        new String[] { "page", "条件" }, new String[] { "1", "{\"name\":\"中文\"}" }),
+                new RequestRecord("", "", "", new String[0], new String[0]));
+
+        String key = cache.key(jsonFile);
+        assertNull(cache.load(key));
+        cache.store(key, records);
+        List<RequestRecord> loaded = cache.load(key);
+
+        assertNotNull(loaded);
+        assertEquals(records.size(), loaded.size());
+        for (int i = 0; i < records.size(); i++)
+        {
+            assertSameRecord(records.get(i), loaded.get(i));
+        }
+    }
+
+    @Test
+    void keyDependsOnContentRulesAndParserMode() throws IOException
+    {
+        Path jsonFile = write("a.json", "{\"item\":[]}");
+        String key = new RecordCache(dir.resolve("cache"), "rules", "stream").key(jsonFile);
+
+        assertEquals(key, new RecordCache(dir.resolve("cache"), "rules", "stream").key(jsonFile));
+        assertNotEquals(key, new RecordCache(dir.resolve("cache"), "rules", "tree").key(jsonFile));
+        assertNotEquals(key, new RecordCache(dir.resolve("cache"), "other", "stream").key(jsonFile));
+        write("a.json", "{\"item\":[{}]}");
+        assertNotEquals(key, new RecordCache(dir.resolve("cache"), "rules", "stream").key(jsonFile));
+    }
+
+    @Test
+    void corruptFilesAreMisses() throws IOException
+    {
+        RecordCache cache = new RecordCache(dir.resolve("cache"), "rules", "stream");
+        String key = cache.key(write("a.json", "{}"));
+        cache.store(key, Collections.singletonList(new RequestRecord("n", "u", "", new String[] { "k" }, new String[] { "v" })));
+        Path cacheFile = dir.resolve("cache").resolve(key + ".bin");
+        byte[] valid = Files.readAllBytes(cacheFile);
+
+        // 截断
+        Files.write(cacheFile, Arrays.copyOf(valid, valid.length - 3));
+        assertNull(cache.load(key));
+        // 记录数过大、字段数为负、字符串长度过大
+        assertNull(loadWith(cache, key, cacheFile, Integer.MAX_VALUE, 1, 1));
+        assertNull(loadWith(cache, key, cacheFile, 1, -1, 1));
+        assertNull(loadWith(cache, key, cacheFile, 1, 1, Integer.MAX_VALUE));
+        assertNotNull(loadWith(cache, key, cacheFile, 1, 1, 1));
+    }
+
+    @Test
+    void pruneKeepsOnlyLatestKeyOfLiveFiles() throws IOException
+    {
+        RecordCache cache = new RecordCache(dir.resolve("cache"), "rules", "stream");
+        Path a = write("a.json", "{\"v\":1}");
+        Path b = write("b.json", "{}");
+        String oldKey = cache.key(a);
+        cache.store(oldKey, Collections.<RequestRecord>emptyList());
+        String bKey = cache.key(b);
+        cache.store(bKey, Collections.<RequestRecord>emptyList());
+
+        // a修改后重新计算键（监听模式），b被删除
+        write("a.json", "{\"v\":2}");
+        String newKey = cache.key(a);
+        cache.store(newKey, Collections.<RequestRecord>emptyList());
+        Files.delete(b);
+
+        assertEquals(2, cache.prune(Collections.singletonList(a)));
+        assertNotNull(cache.load(newKey));
+        assertNull(cache.load(oldKey));
+        assertNull(cache.load(bKey));
+        try (Stream<Path> files = Files.list(dir.resolve("cache")))
+        {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * 写入一条记录（名称、url为单字节字符串，一个字段）的缓存文件，记录数、字段数和字段键的长度由参数指定
+     */
+    private static List<RequestRecord> loadWith(RecordCache cache, String key, Path cacheFile, int count, int fieldCount,
+            int keyLength) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(cacheFile)))
+        {
+            out.writeInt(0x504A4143);
+            out.writeInt(2);
+            out.writeInt(count);
+            writeString(out, "n");
+            writeString(out, "u");
+            out.writeInt(fieldCount);
+            out.writeInt(keyLength);
+            out.write('k');
+            writeString(out, "v");
+            writeString(out, "");
+        }
+        return cache.load(key);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private Path write(String name, String content) throws IOException
+    {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameRecord(RequestRecord expected, RequestRecord actual)
+    {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getFolder(), actual.getFolder());
+        assertEquals(expected.getFormSize(), actual.getFormSize());
+        for (int i = 0; i < expected.getFormSize(); i++)
+        {
+            assertEquals(expected.getFormKey(i), actual.getFormKey(i));
+            assertEquals(expected.getFormValue(i), actual.getFormValue(i));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.idea.postman;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @ClassName: UrlRuleMatcherTest
+ * @Description: UrlRuleMatcher合并后的正则与逐条 url.matches(".*" + rule) 的结果一致
+ * @Author: yuanbao
+ * @Date: 2025/4/23
+ **/
+class UrlRuleMatcherTest
+{
+    private static final List<String> URLS = Arrays.asList(
+            "{{url}}/mes/moduleBean!selectList.m",
+            "{{url}}/mes/moduleBean!selectList.m?x=1",
+            "{{url}}/mes/moduleBean!select.m",
+            "{{url}}/mes/moduleBean!save.m",
+            "{{url}}/mes/moduleBean!selectPage.mm",
+            "{{url}}/aps/planBean!selectByCode.m",
+            "{{url}}/aps/planBean!exportExcel.m",
+            "{{url}}/aps/planBean!exportExcel.do",
+            "!select.m",
+            "select.m",
+            "",
+            "{{url}}/sys/userBean!SELECTAll.m");
+
+    private static final List<List<String>> INCLUDES = Arrays.asList(
+            Collections.singletonList("!select.*\\.m$"),
+            Arrays.asList("!select.*\\.m$", "!export.*"),
+            Arrays.asList("aps/.*", "!save\\.m"),
+            Collections.singletonList("(?i)!select.*\\.m"),
+            Collections.singletonList("!sel?ect.*"),
+            Collections.singletonList("a|b\\.m"),
+            Collections.singletonList("\\.do$"),
+            Collections.<String>emptyList());
+
+    private static final List<List<String>> EXCLUDES = Arrays.asList(
+            Collections.<String>emptyList(),
+            Collections.singletonList("aps/.*"),
+            Arrays.asList("!selectList.*", "\\?.*"));
+
+    @Test
+    void matchesSameAsPerRuleMatching()
+    {
+        for (List<String> includes : INCLUDES)
+        {
+            for (List<String> excludes : EXCLUDES)
+            {
+                UrlRuleMatcher matcher = new UrlRuleMatcher(includes, excludes);
+                for (String url : URLS)
+                {
+                    assertEquals(reference(includes, excludes, url), matcher.test(url),
+                            "include=" + includes + ", exclude=" + excludes + ", url=" + url);
+                }
+            }
+        }
+    }
+
+    @Test
+    void literalPrefixStopsAtMetaCharacters()
+    {
+        assertEquals("!select", UrlRuleMatcher.literalPrefix("!select.*\\.m$"));
+        assertEquals("!se", UrlRuleMatcher.literalPrefix("!sel?ect"));
+        assertEquals("", UrlRuleMatcher.literalPrefix("(?i)!select"));
+        assertEquals("", UrlRuleMatcher.literalPrefix("a|b"));
+        assertEquals("abc", UrlRuleMatcher.literalPrefix("abc"));
+    }
+
+    @Test
+    void invalidRuleIsRejected()
+    {
+        assertThrows(RuntimeException.class, () -> new UrlRuleMatcher(Collections.singletonList("(unclosed"), Collections.emptyList()));
+    }
+
+    @Test
+    void loadRulesSplitsIncludesAndExcludes() throws IOException
+    {
+        Path rules = Files.createTempFile("rules", ".txt");
+        try
+        {
+            Files.write(rules, Arrays.asList("# 注释", "", "!select.*\\.m$", "+ !export.*", "- aps/.*"), StandardCharsets.UTF_8);
+            List<String> includes = new ArrayList<>();
+            List<String> excludes = new ArrayList<>();
+            UrlRuleMatcher.loadRules(rules, includes, excludes);
+            assertEquals(Arrays.asList("!select.*\\.m$", "!export.*"), includes);
+            assertEquals(Collections.singletonList("aps/.*"), excludes);
+
+            UrlRuleMatcher matcher = new UrlRuleMatcher(includes, excludes);
+            assertTrue(matcher.test("{{url}}/mes/moduleBean!selectList.m"));
+            assertFalse(matcher.test("{{url}}/aps/planBean!selectByCode.m"));
+        } finally
+        {
+            Files.delete(rules);
+        }
+    }
+
+    /**
+     * 原先的逐条匹配：匹配任一包含规则且不匹配任一排除规则
+     */
+    private static boolean reference(List<String> includes, List<String> excludes, String url)
+    {
+        boolean included = false;
+        for (String rule : includes)
+        {
+            included |= url.matches(".*" + rule);
+        }
+        if (!included)
+        {
+            return false;
+        }
+        for (String rule : excludes)
+        {
+            if (url.matches(".*" + rule))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}